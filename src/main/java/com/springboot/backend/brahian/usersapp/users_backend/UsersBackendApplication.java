@@ -2,8 +2,14 @@ package com.springboot.backend.brahian.usersapp.users_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// El pool R2DBC de la API reactiva se configura en ReactiveApiConfig; la autoconfiguración
+// añadiría un segundo TransactionManager que compite con el de JPA
+@SpringBootApplication(exclude = { R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class })
+@EnableScheduling
 public class UsersBackendApplication {
 
 	public static void main(String[] args) {
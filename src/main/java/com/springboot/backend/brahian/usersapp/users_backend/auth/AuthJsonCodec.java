@@ -0,0 +1,61 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.filter.SimpleGrantedAuthorityJsonCreator;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+
+/**
+ * Lectores y escritores JSON compartidos por los filtros de autenticación.
+ *
+ * Crear un ObjectMapper por petición descarta las cachés de serializadores de Jackson,
+ * así que cada login y cada petición autenticada volvían a pagar la introspección.
+ * ObjectReader y ObjectWriter son inmutables y seguros entre hilos, por lo que se
+ * construyen una sola vez y se reutilizan.
+ */
+@Component
+public class AuthJsonCodec {
+
+    private final ObjectReader userReader;
+    private final ObjectReader authoritiesReader;
+    private final ObjectWriter writer;
+
+    public AuthJsonCodec() {
+        ObjectMapper mapper = new ObjectMapper()
+                .addMixIn(SimpleGrantedAuthority.class, SimpleGrantedAuthorityJsonCreator.class);
+        this.userReader = mapper.readerFor(User.class);
+        this.authoritiesReader = mapper.readerFor(SimpleGrantedAuthority[].class);
+        this.writer = mapper.writerFor(Map.class);
+    }
+
+    /**
+     * Lee las credenciales de login enviadas en el cuerpo de la petición.
+     */
+    public User readUser(InputStream body) throws IOException {
+        return userReader.readValue(body);
+    }
+
+    /**
+     * Decodifica los roles guardados como JSON en el claim "authorities"
+     * (formato de los tokens emitidos antes de AuthoritiesClaim).
+     */
+    public SimpleGrantedAuthority[] readAuthorities(String json) throws IOException {
+        return authoritiesReader.readValue(json);
+    }
+
+    /**
+     * Serializa los cuerpos de respuesta de los filtros (login, errores).
+     */
+    public String writeMap(Map<String, ?> body) throws JsonProcessingException {
+        return writer.writeValueAsString(body);
+    }
+}
@@ -0,0 +1,71 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Formato del claim "authorities" de los tokens JWT.
+ *
+ * Los tokens nuevos guardan los roles como un arreglo nativo de nombres
+ * (["ROLE_USER","ROLE_ADMIN"]) en lugar de un JSON serializado dentro de un string.
+ * Así el token es más corto y al validarlo no hace falta un segundo parseo con Jackson.
+ *
+ * Los tokens emitidos antes del cambio (string JSON) se siguen aceptando mientras
+ * dure su vigencia.
+ */
+public final class AuthoritiesClaim {
+
+    public static final String NAME = "authorities";
+
+    /** Instancias compartidas por nombre de rol; SimpleGrantedAuthority es inmutable */
+    private static final Map<String, SimpleGrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private AuthoritiesClaim() {
+    }
+
+    /**
+     * Convierte los roles autenticados al valor del claim.
+     */
+    public static List<String> encode(Collection<? extends GrantedAuthority> authorities) {
+        List<String> names = new ArrayList<>(authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            names.add(authority.getAuthority());
+        }
+        return names;
+    }
+
+    /**
+     * Reconstruye los roles a partir del valor del claim.
+     *
+     * @param claim Valor del claim: una lista de nombres (formato actual) o un string JSON (formato anterior)
+     * @param jsonCodec Codec usado solo para los tokens con el formato anterior
+     * @return Roles del usuario, reutilizando instancias ya creadas
+     * @throws IOException si el claim con formato anterior no es un JSON válido
+     */
+    public static List<GrantedAuthority> decode(Object claim, AuthJsonCodec jsonCodec) throws IOException {
+        if (claim == null) {
+            return Collections.emptyList();
+        }
+        if (claim instanceof Collection<?> names) {
+            List<GrantedAuthority> roles = new ArrayList<>(names.size());
+            for (Object name : names) {
+                roles.add(authority(name.toString()));
+            }
+            return roles;
+        }
+        // Formato anterior: JSON con objetos {"authority": "..."} dentro de un string
+        return List.of(jsonCodec.readAuthorities(claim.toString()));
+    }
+
+    private static SimpleGrantedAuthority authority(String name) {
+        return AUTHORITIES.computeIfAbsent(name, SimpleGrantedAuthority::new);
+    }
+}
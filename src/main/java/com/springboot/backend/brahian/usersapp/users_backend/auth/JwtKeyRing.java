@@ -0,0 +1,311 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.EdECPrivateKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.crypto.SecretKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Claves de firma de los tokens JWT, identificadas por kid.
+ *
+ * Se leen de un keystore PKCS12 (auth.jwt.keystore.path) en el que cada entrada de clave
+ * secreta es una clave HMAC y su alias es el kid. Todos los nodos con el mismo keystore
+ * firman y aceptan los mismos tokens, y un reinicio no invalida las sesiones.
+ *
+ * Rotación sin cortes:
+ * - Una clave nueva se acepta al verificar en cuanto aparece en el keystore, pero solo se usa
+ *   para firmar pasado auth.jwt.rotation.activation-delay, cuando todos los nodos ya la conocen
+ *   (salvo que auth.jwt.active-kid fije la clave de firma)
+ * - Una clave que desaparece del keystore se sigue aceptando durante auth.jwt.rotation.grace,
+ *   el tiempo de vida de los tokens que firmó; al descartarla se vacía la caché de tokens
+ *
+ * Modo asimétrico (auth.jwt.algorithm = ES256 o EdDSA): se firma con la clave privada de una
+ * entrada de par de claves (keytool -genkeypair -keyalg EC -groupname secp256r1, o -keyalg Ed25519)
+ * y se verifica con la pública de su certificado. Las claves públicas se publican como JWKS para
+ * que otros servicios y gateways verifiquen los tokens sin el secreto; como lo cachean, la demora
+ * de activación debe ser mayor que auth.jwt.jwks.max-age. Solo son candidatas a firmar las claves
+ * del algoritmo configurado, pero se aceptan todas las del keystore, lo que permite migrar de
+ * HS256 a ES256 sin invalidar sesiones.
+ *
+ * El keystore se relee cada auth.jwt.keystore.reload-ms. Las claves vigentes forman un mapa
+ * inmutable kid→clave que se reemplaza de forma atómica, y el verificador lo consulta sin locks.
+ * Sin keystore se genera una clave aleatoria por proceso, como antes (solo para desarrollo).
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    /** Clave con la que se firman los tokens nuevos */
+    public record SigningKey(String kid, Key key) {
+    }
+
+    /** Vista inmutable de las claves: la de firma, todas las aceptadas al verificar y el JWKS público */
+    private record Snapshot(SigningKey signing, Map<String, Key> verification, Map<String, List<Jwk<?>>> jwks) {
+    }
+
+    /** Algoritmos de firma admitidos en auth.jwt.algorithm */
+    public static final List<String> ALGORITHMS = List.of("HS256", "ES256", "EdDSA");
+
+    /** Clave retirada del keystore que se sigue aceptando hasta until */
+    private record Retired(Key key, Instant until) {
+    }
+
+    private final String keystorePath;
+    private final char[] keystorePassword;
+    private final String activeKid;
+    private final String algorithm;
+    private final Duration activationDelay;
+    private final Duration grace;
+    private final JwtTokenCache tokenCache;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Retired> retired = new HashMap<>();
+    private Map<String, Key> loaded = Map.of();
+    private Map<String, Key> signers = Map.of();
+    private Map<String, Instant> created = Map.of();
+    private long loadedModified = -1;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public JwtKeyRing(@Value("${auth.jwt.keystore.path:}") String keystorePath,
+            @Value("${auth.jwt.keystore.password:}") String keystorePassword,
+            @Value("${auth.jwt.active-kid:}") String activeKid,
+            @Value("${auth.jwt.algorithm:HS256}") String algorithm,
+            @Value("${auth.jwt.rotation.activation-delay:PT45M}") Duration activationDelay,
+            @Value("${auth.jwt.rotation.grace:PT1H}") Duration grace,
+            JwtTokenCache tokenCache) {
+        this(keystorePath, keystorePassword, activeKid, algorithm, activationDelay, grace, tokenCache,
+                Clock.systemUTC());
+    }
+
+    JwtKeyRing(String keystorePath, String keystorePassword, String activeKid, String algorithm,
+            Duration activationDelay, Duration grace, JwtTokenCache tokenCache, Clock clock) {
+        if (!ALGORITHMS.contains(algorithm)) {
+            throw new IllegalArgumentException("auth.jwt.algorithm debe ser uno de " + ALGORITHMS + ": " + algorithm);
+        }
+        this.keystorePath = keystorePath;
+        this.keystorePassword = keystorePassword.toCharArray();
+        this.activeKid = activeKid;
+        this.algorithm = algorithm;
+        this.activationDelay = activationDelay;
+        this.grace = grace;
+        this.tokenCache = tokenCache;
+        this.clock = clock;
+        if (keystorePath.isBlank()) {
+            String kid = "ephemeral-" + UUID.randomUUID();
+            if (algorithm.equals("HS256")) {
+                SecretKey key = Jwts.SIG.HS256.key().build();
+                snapshot = new Snapshot(new SigningKey(kid, key), Map.of(kid, key), jwks(Map.of()));
+            } else {
+                KeyPair pair = algorithm.equals("ES256")
+                        ? Jwts.SIG.ES256.keyPair().build()
+                        : Jwks.CRV.Ed25519.keyPair().build();
+                Map<String, Key> verification = Map.of(kid, pair.getPublic());
+                snapshot = new Snapshot(new SigningKey(kid, pair.getPrivate()), verification, jwks(verification));
+            }
+            log.warn("Sin auth.jwt.keystore.path: se firma con una clave aleatoria; los tokens no se comparten "
+                    + "entre nodos ni sobreviven a un reinicio");
+        } else {
+            reload();
+        }
+    }
+
+    public SigningKey signingKey() {
+        return snapshot.signing();
+    }
+
+    /**
+     * @return La clave aceptada con ese kid, o null si no existe o ya se descartó
+     */
+    public Key verificationKey(String kid) {
+        return snapshot.verification().get(kid);
+    }
+
+    /**
+     * @return JWKS ({"keys": [...]}) con las claves públicas aceptadas, incluidas las retiradas
+     *         en periodo de gracia; sin claves en modo HS256, cuyas claves nunca se publican
+     */
+    public Map<String, List<Jwk<?>>> jwks() {
+        return snapshot.jwks();
+    }
+
+    /**
+     * Relee el keystore si cambió, elige la clave de firma y descarta las claves retiradas
+     * cuyo periodo de gracia terminó.
+     * @throws IllegalStateException si el keystore no se puede leer en la carga inicial
+     */
+    @Scheduled(fixedDelayString = "${auth.jwt.keystore.reload-ms:60000}",
+            initialDelayString = "${auth.jwt.keystore.reload-ms:60000}")
+    public void reload() {
+        if (keystorePath.isBlank()) {
+            return;
+        }
+        lock.lock();
+        try {
+            Instant now = clock.instant();
+            File file = new File(keystorePath);
+            if (file.lastModified() != loadedModified) {
+                try {
+                    readKeystore(file, now);
+                    loadedModified = file.lastModified();
+                } catch (IOException | GeneralSecurityException | IllegalStateException e) {
+                    if (snapshot == null) {
+                        throw new IllegalStateException("No se pudo leer el keystore JWT " + keystorePath, e);
+                    }
+                    log.warn("No se pudo releer el keystore JWT, se mantienen las claves actuales: {}", e.getMessage());
+                }
+            }
+
+            boolean expired = retired.values().removeIf(r -> !r.until().isAfter(now));
+            Map<String, Key> verification = new HashMap<>(loaded);
+            retired.forEach((kid, r) -> verification.put(kid, r.key()));
+            String kid = selectActive(now);
+            Snapshot previous = snapshot;
+            snapshot = new Snapshot(new SigningKey(kid, signers.get(kid)), Map.copyOf(verification), jwks(verification));
+
+            if (previous == null || !previous.signing().kid().equals(kid)) {
+                log.info("Claves JWT: {}; se firma con {}", verification.keySet(), kid);
+            }
+            if (expired) {
+                // Las autenticaciones cacheadas de tokens firmados con claves descartadas ya no son válidas
+                tokenCache.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Carga las claves del keystore y pasa a retiradas las que ya no están.
+     * Las claves secretas firman y verifican; de un par se firma con la privada y se verifica
+     * con la pública del certificado.
+     */
+    private void readKeystore(File file, Instant now) throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = new FileInputStream(file)) {
+            keyStore.load(in, keystorePassword);
+        }
+        Map<String, Key> keys = new HashMap<>();
+        Map<String, Key> signing = new HashMap<>();
+        Map<String, Instant> dates = new HashMap<>();
+        for (String alias : Collections.list(keyStore.aliases())) {
+            Key key = keyStore.getKey(alias, keystorePassword);
+            if (key instanceof SecretKey) {
+                // Keys.hmacShaKeyFor elige HS256/384/512 según la longitud de la clave
+                SecretKey secret = Keys.hmacShaKeyFor(key.getEncoded());
+                keys.put(alias, secret);
+                signing.put(alias, secret);
+            } else if (key instanceof PrivateKey && keyStore.getCertificate(alias) != null) {
+                keys.put(alias, keyStore.getCertificate(alias).getPublicKey());
+                signing.put(alias, key);
+            } else {
+                continue;
+            }
+            if (isActiveAlgorithm(signing.get(alias))) {
+                dates.put(alias, keyStore.getCreationDate(alias).toInstant());
+            }
+        }
+        if (dates.isEmpty()) {
+            throw new IllegalStateException("el keystore no tiene claves " + algorithm);
+        }
+        if (!activeKid.isBlank() && !dates.containsKey(activeKid)) {
+            throw new IllegalStateException("auth.jwt.active-kid " + activeKid + " no es una clave " + algorithm
+                    + " del keystore");
+        }
+
+        loaded.forEach((kid, key) -> {
+            if (!keys.containsKey(kid)) {
+                retired.put(kid, new Retired(key, now.plus(grace)));
+                log.info("Clave JWT {} retirada del keystore; se acepta hasta {}", kid, now.plus(grace));
+            }
+        });
+        retired.keySet().removeAll(keys.keySet());
+        loaded = keys;
+        signers = signing;
+        created = dates;
+    }
+
+    /**
+     * Si la clave de firma corresponde a auth.jwt.algorithm (JJWT elige ES256/384/512 según la curva)
+     */
+    private boolean isActiveAlgorithm(Key key) {
+        return switch (algorithm) {
+            case "ES256" -> key instanceof ECPrivateKey;
+            case "EdDSA" -> key instanceof EdECPrivateKey;
+            default -> key instanceof SecretKey;
+        };
+    }
+
+    /**
+     * JWKS con las claves públicas del mapa, con su kid y uso "sig"
+     */
+    private static Map<String, List<Jwk<?>>> jwks(Map<String, Key> verification) {
+        // JwkSet de JJWT no admite un conjunto vacío, así que se arma el documento directamente
+        List<Jwk<?>> keys = new ArrayList<>();
+        verification.forEach((kid, key) -> {
+            if (key instanceof PublicKey publicKey) {
+                keys.add(Jwks.builder().key(publicKey).id(kid).publicKeyUse("sig").build());
+            }
+        });
+        return Map.of("keys", List.copyOf(keys));
+    }
+
+    /**
+     * auth.jwt.active-kid si está configurado; si no, la clave del algoritmo más reciente con antigüedad
+     * suficiente (o la más antigua si todas son nuevas, para poder arrancar con la primera).
+     */
+    private String selectActive(Instant now) {
+        if (!activeKid.isBlank()) {
+            return activeKid;
+        }
+        Instant eligibleBefore = now.minus(activationDelay);
+        String newestEligible = null;
+        String oldest = null;
+        for (Map.Entry<String, Instant> entry : created.entrySet()) {
+            Instant date = entry.getValue();
+            if (!date.isAfter(eligibleBefore)
+                    && (newestEligible == null || date.isAfter(created.get(newestEligible)))) {
+                newestEligible = entry.getKey();
+            }
+            if (oldest == null || date.isBefore(created.get(oldest))) {
+                oldest = entry.getKey();
+            }
+        }
+        return newestEligible != null ? newestEligible : oldest;
+    }
+}
@@ -0,0 +1,184 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Caché acotada de tokens JWT ya verificados.
+ *
+ * Cada petición autenticada envía el mismo token durante toda su vigencia (1 hora),
+ * por lo que volver a verificar la firma y decodificar los roles en cada llamada es
+ * trabajo repetido. Esta caché guarda la autenticación resuelta indexada por el
+ * digest SHA-256 del token y la descarta cuando llega la fecha de expiración (exp).
+ *
+ * - El tamaño máximo se configura con auth.token-cache.max-size
+ * - Expone contadores de aciertos, fallos y desalojos (métricas auth.token.cache.*)
+ */
+@Component
+public class JwtTokenCache implements MeterBinder {
+
+    /** Autenticación resuelta junto con el instante (ms) en que expira el token */
+    private record Entry(UsernamePasswordAuthenticationToken authentication, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    private final Clock clock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public JwtTokenCache(@Value("${auth.token-cache.max-size:10000}") int maxSize) {
+        this(maxSize, Clock.systemUTC());
+    }
+
+    JwtTokenCache(int maxSize, Clock clock) {
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Busca la autenticación asociada a un token.
+     * Devuelve una copia nueva para que el contexto de seguridad de cada petición
+     * no comparta la misma instancia mutable.
+     *
+     * @param token Token JWT compacto (sin el prefijo "Bearer ")
+     * @return La autenticación cacheada o null si no existe o ya expiró
+     */
+    public UsernamePasswordAuthenticationToken get(String token) {
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.expiresAt() <= clock.millis()) {
+            // El token expiró: se elimina y se obliga a verificarlo de nuevo (fallará por exp)
+            if (entries.remove(key, entry)) {
+                evictions.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        UsernamePasswordAuthenticationToken cached = entry.authentication();
+        return new UsernamePasswordAuthenticationToken(cached.getPrincipal(), null, cached.getAuthorities());
+    }
+
+    /**
+     * Guarda la autenticación de un token recién verificado.
+     *
+     * @param token Token JWT compacto
+     * @param authentication Autenticación resuelta a partir de los claims
+     * @param expiresAt Instante de expiración del token en milisegundos
+     */
+    public void put(String token, UsernamePasswordAuthenticationToken authentication, long expiresAt) {
+        if (maxSize <= 0 || expiresAt <= clock.millis()) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(digest(token), new Entry(authentication, expiresAt));
+    }
+
+    /**
+     * Vacía la caché, por ejemplo cuando cambian las claves de firma.
+     */
+    public void clear() {
+        int size = entries.size();
+        entries.clear();
+        evictions.addAndGet(size);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.token.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("auth.token.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("auth.token.cache.evictions", evictions, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("auth.token.cache.size", this, JwtTokenCache::size)
+                .register(registry);
+    }
+
+    /**
+     * Libera espacio cuando se alcanza el tamaño máximo: primero elimina los tokens
+     * expirados y, si aún no hay sitio, descarta los que expiran antes hasta bajar del 90%
+     * de la capacidad. Son los que menos peticiones ahorrarían si se quedaran.
+     */
+    private void evict() {
+        long now = clock.millis();
+        entries.entrySet().removeIf(e -> {
+            boolean expired = e.getValue().expiresAt() <= now;
+            if (expired) {
+                evictions.incrementAndGet();
+            }
+            return expired;
+        });
+
+        int excess = entries.size() - (int) (maxSize * 0.9);
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<String, Entry>> soonest = new ArrayList<>(entries.entrySet());
+        soonest.sort(Comparator.comparingLong(e -> e.getValue().expiresAt()));
+        for (Map.Entry<String, Entry> e : soonest.subList(0, Math.min(excess, soonest.size()))) {
+            if (entries.remove(e.getKey(), e.getValue())) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 es obligatorio en toda JVM
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import java.util.Collection;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Jwts;
+
+/**
+ * Emisión de tokens JWT tras un login correcto (ver JwtAuthenticationFilter).
+ * Separada del filtro para poder medirla en los benchmarks con el mismo código que producción.
+ * Firma con la clave activa de JwtKeyRing e indica su kid en la cabecera.
+ */
+@Component
+public class JwtTokenIssuer {
+
+    /** Vigencia de los tokens: 1 hora */
+    public static final long EXPIRATION_MILLIS = 3600000;
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    /**
+     * Genera el token compacto con el usuario como subject y sus roles en el claim "authorities".
+     */
+    public String issue(String username, Collection<? extends GrantedAuthority> roles) {
+        long now = System.currentTimeMillis();
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
+        return Jwts.builder()
+                .header().keyId(signingKey.kid()).and() // kid para que el verificador elija la clave
+                .subject(username) // Sujeto del token (nombre de usuario)
+                .claim(AuthoritiesClaim.NAME, AuthoritiesClaim.encode(roles)) // Roles como arreglo de nombres
+                .claim("username", username) // Agrega el nombre de usuario
+                .signWith(signingKey.key()) // Firma el token con la clave activa
+                .issuedAt(new Date(now)) // Fecha de emisión
+                .expiration(new Date(now + EXPIRATION_MILLIS)) // Expira en 1 hora
+                .compact(); // Genera el token compacto
+    }
+}
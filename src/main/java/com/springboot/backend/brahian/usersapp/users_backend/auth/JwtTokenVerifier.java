@@ -0,0 +1,148 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import static com.springboot.backend.brahian.usersapp.users_backend.auth.TokenJwtConfig.*;
+
+import java.io.IOException;
+import java.security.Key;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Verificación de tokens JWT compartida por el filtro servlet (JwtValidationFilter)
+ * y el WebFilter de la API reactiva, para que ambas pilas acepten exactamente los mismos tokens.
+ *
+ * Comprueba primero la caché de tokens ya verificados; si no está, valida la firma,
+ * reconstruye los roles del claim "authorities" y guarda el resultado hasta la expiración.
+ *
+ * Mide cada fase en el timer auth.token (phase = parse | verify | decode). JJWT parsea la
+ * cabecera y el payload antes de pedir la clave y verifica la firma después, así que el
+ * localizador de claves marca la frontera entre parse y verify.
+ *
+ * El localizador elige la clave por el kid de la cabecera en el mapa de JwtKeyRing, que se
+ * reemplaza de forma atómica al rotar claves; el parser no se reconstruye.
+ */
+@Component
+public class JwtTokenVerifier {
+
+    /** Parser JWT construido una sola vez; es inmutable y seguro entre hilos */
+    private final JwtParser jwtParser = Jwts.parser().keyLocator(this::locateKey).build();
+
+    /** Instante (ns) en que empezó la fase en curso del hilo actual */
+    private final ThreadLocal<long[]> phaseStart = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Autowired
+    private JwtTokenCache tokenCache;
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    @Autowired
+    private AuthJsonCodec jsonCodec;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer parseTimer;
+    private Timer verifyTimer;
+    private Timer decodeTimer;
+
+    @PostConstruct
+    void registerTimers() {
+        parseTimer = phaseTimer("parse");
+        verifyTimer = phaseTimer("verify");
+        decodeTimer = phaseTimer("decode");
+    }
+
+    /**
+     * Extrae el token de un header Authorization ("Bearer ...").
+     * @return El token, o null si el header no existe o no usa el prefijo esperado
+     */
+    public String resolveToken(String header) {
+        if (header == null || !header.startsWith(PREFIX_TOKEN)) {
+            return null;
+        }
+        return header.replace(PREFIX_TOKEN, "");
+    }
+
+    /**
+     * Verifica el token y devuelve la autenticación con el usuario y sus roles.
+     * @throws JwtException si la firma, la expiración o el claim de roles no son válidos
+     */
+    public UsernamePasswordAuthenticationToken verify(String token) {
+        // Si el token ya fue verificado y no ha expirado, se reutiliza la autenticación
+        UsernamePasswordAuthenticationToken cached = tokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Claims contiene toda la información del token (username, roles, expiración, etc.)
+        long[] start = phaseStart.get();
+        start[0] = System.nanoTime();
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        long decodeStart = System.nanoTime();
+        verifyTimer.record(decodeStart - start[0], TimeUnit.NANOSECONDS);
+
+        // Los tokens nuevos traen un arreglo de nombres; los antiguos, un JSON dentro de un string
+        Collection<? extends GrantedAuthority> roles;
+        try {
+            roles = AuthoritiesClaim.decode(claims.get(AuthoritiesClaim.NAME), jsonCodec);
+        } catch (IOException e) {
+            throw new MalformedJwtException("El claim de roles no es valido", e);
+        } finally {
+            decodeTimer.record(System.nanoTime() - decodeStart, TimeUnit.NANOSECONDS);
+        }
+
+        // El password se establece como null ya que no es necesario en este punto
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                claims.getSubject(), null, roles);
+
+        // Guarda la autenticación resuelta hasta la expiración del token
+        if (claims.getExpiration() != null) {
+            tokenCache.put(token, authentication, claims.getExpiration().getTime());
+        }
+        return authentication;
+    }
+
+    /**
+     * Se invoca cuando JJWT ya parseó el token y antes de verificar la firma:
+     * cierra la fase parse y empieza la fase verify.
+     * @throws UnsupportedJwtException si el token no trae kid o la clave no existe o ya se descartó
+     */
+    private Key locateKey(Header header) {
+        long[] start = phaseStart.get();
+        long now = System.nanoTime();
+        parseTimer.record(now - start[0], TimeUnit.NANOSECONDS);
+        start[0] = now;
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        Key key = kid == null ? null : keyRing.verificationKey(kid);
+        if (key == null) {
+            throw new UnsupportedJwtException("Token firmado con una clave desconocida: " + kid);
+        }
+        return key;
+    }
+
+    private Timer phaseTimer(String phase) {
+        return Timer.builder("auth.token")
+                .description("Tiempo de cada fase de la validación de un token JWT no cacheado")
+                .tag("phase", phase)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
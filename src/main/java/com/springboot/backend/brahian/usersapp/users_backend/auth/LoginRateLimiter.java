@@ -0,0 +1,201 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Limita los intentos de login antes de llegar a la base de datos y a BCrypt.
+ *
+ * - Por IP: cada intento consume una ficha del bucket de la IP remota
+ * - Por username: cada intento consume una ficha antes de autenticar y los logins correctos
+ *   la devuelven, así que a la larga solo cuentan los fallos. Los intentos en curso también
+ *   cuentan: una ráfaga concurrente contra un usuario desde muchas IPs se corta en la capacidad
+ *   del bucket sin esperar a que terminen los hashes BCrypt. Con el bucket vacío se rechaza
+ *   cualquier intento para ese usuario, aunque la contraseña sea correcta
+ *
+ * Cada bucket es un único AtomicLong (algoritmo GCRA: guarda el instante teórico en que el
+ * bucket vuelve a estar lleno) que se actualiza con CAS, sin locks. Los buckets viven en
+ * cachés Caffeine acotadas (auth.login-limit.max-keys) que descartan los menos usados y los
+ * que llevan más tiempo del necesario para rellenarse, así que la memoria no crece con un
+ * ataque que rote IPs o usernames.
+ */
+@Component
+public class LoginRateLimiter implements MeterBinder {
+
+    /**
+     * Bucket de fichas en formato GCRA: capacity intentos seguidos y uno nuevo cada interval.
+     */
+    static final class Bucket {
+
+        private final AtomicLong fullAt;
+
+        Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * @return 0 si se consumió una ficha, o los nanosegundos que faltan para la siguiente
+         */
+        long tryAcquire(long now, long interval, long tolerance) {
+            while (true) {
+                long current = fullAt.get();
+                long base = Math.max(current, now);
+                long wait = base - now - tolerance;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, base + interval)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Devuelve una ficha consumida con tryAcquire. Como tryAcquire deja fullAt al menos un
+         * interval por encima del instante en que consumió, el bucket nunca supera su capacidad.
+         */
+        void refund(long interval) {
+            fullAt.addAndGet(-interval);
+        }
+    }
+
+    private final boolean enabled;
+
+    private final long ipInterval;
+    private final long ipTolerance;
+    private final long usernameInterval;
+    private final long usernameTolerance;
+
+    private final Cache<String, Bucket> ipBuckets;
+    private final Cache<String, Bucket> usernameBuckets;
+
+    private final LongSupplier clock;
+
+    private final AtomicLong ipRejections = new AtomicLong();
+    private final AtomicLong usernameRejections = new AtomicLong();
+
+    @Autowired
+    public LoginRateLimiter(@Value("${auth.login-limit.enabled:true}") boolean enabled,
+            @Value("${auth.login-limit.ip.capacity:20}") int ipCapacity,
+            @Value("${auth.login-limit.ip.per-minute:60}") int ipPerMinute,
+            @Value("${auth.login-limit.username.capacity:5}") int usernameCapacity,
+            @Value("${auth.login-limit.username.per-minute:5}") int usernamePerMinute,
+            @Value("${auth.login-limit.max-keys:100000}") long maxKeys) {
+        this(enabled, ipCapacity, ipPerMinute, usernameCapacity, usernamePerMinute, maxKeys, System::nanoTime);
+    }
+
+    LoginRateLimiter(boolean enabled, int ipCapacity, int ipPerMinute, int usernameCapacity, int usernamePerMinute,
+            long maxKeys, LongSupplier clock) {
+        this.enabled = enabled;
+        this.ipInterval = TimeUnit.MINUTES.toNanos(1) / ipPerMinute;
+        this.ipTolerance = ipInterval * (ipCapacity - 1);
+        this.usernameInterval = TimeUnit.MINUTES.toNanos(1) / usernamePerMinute;
+        this.usernameTolerance = usernameInterval * (usernameCapacity - 1);
+        this.clock = clock;
+        // Un bucket sin uso durante el tiempo de rellenarse está lleno: descartarlo no cambia nada
+        this.ipBuckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(ipInterval + ipTolerance))
+                .build();
+        this.usernameBuckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(usernameInterval + usernameTolerance))
+                .build();
+    }
+
+    /**
+     * Consume un intento de la IP.
+     * @return 0 si el intento se permite, o los segundos que debe esperar el cliente
+     */
+    public long acquireForIp(String ip) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        long wait = ipBuckets.get(ip, key -> new Bucket(now)).tryAcquire(now, ipInterval, ipTolerance);
+        if (wait > 0) {
+            ipRejections.incrementAndGet();
+        }
+        return toSeconds(wait);
+    }
+
+    /**
+     * Consume un intento del usuario antes de autenticar; se devuelve con refundUsername
+     * si el login es correcto o no llegó a comprobar la contraseña.
+     * @return 0 si el intento se permite, o los segundos que debe esperar el cliente
+     */
+    public long acquireForUsername(String username) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        long wait = usernameBuckets.get(key(username), key -> new Bucket(now))
+                .tryAcquire(now, usernameInterval, usernameTolerance);
+        if (wait > 0) {
+            usernameRejections.incrementAndGet();
+        }
+        return toSeconds(wait);
+    }
+
+    /**
+     * Devuelve el intento consumido por acquireForUsername.
+     */
+    public void refundUsername(String username) {
+        if (!enabled) {
+            return;
+        }
+        Bucket bucket = usernameBuckets.getIfPresent(key(username));
+        if (bucket != null) {
+            bucket.refund(usernameInterval);
+        }
+    }
+
+    public long getIpRejections() {
+        return ipRejections.get();
+    }
+
+    public long getUsernameRejections() {
+        return usernameRejections.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.login.rejected", ipRejections, AtomicLong::get)
+                .description("Intentos de login rechazados con 429 antes de autenticar")
+                .tag("limit", "ip")
+                .register(registry);
+        FunctionCounter.builder("auth.login.rejected", usernameRejections, AtomicLong::get)
+                .description("Intentos de login rechazados con 429 antes de autenticar")
+                .tag("limit", "username")
+                .register(registry);
+        Gauge.builder("auth.login.limiter.keys", ipBuckets, Cache::estimatedSize)
+                .tag("limit", "ip")
+                .register(registry);
+        Gauge.builder("auth.login.limiter.keys", usernameBuckets, Cache::estimatedSize)
+                .tag("limit", "username")
+                .register(registry);
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static long toSeconds(long nanos) {
+        return nanos <= 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + 999_999_999));
+    }
+}
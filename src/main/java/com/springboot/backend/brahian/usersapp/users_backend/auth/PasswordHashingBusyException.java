@@ -0,0 +1,14 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Se lanza cuando el pool de hash de contraseñas está saturado y no acepta más trabajo.
+ * Los filtros y controladores la traducen a un 503 (Service Unavailable).
+ */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,194 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Codificador BCrypt que ejecuta el hash y la verificación de contraseñas en un pool
+ * de hilos dedicado y acotado.
+ *
+ * BCrypt consume CPU durante decenas de milisegundos por operación. Si se ejecuta
+ * directamente en los hilos de Tomcat (login) o dentro de una transacción (alta de
+ * usuarios), una ráfaga de logins agota tanto los hilos del servidor como el pool de
+ * conexiones. Con este pool:
+ * - Como máximo se ejecutan tantos hashes en paralelo como hilos tenga el pool
+ *   (por defecto, el número de CPUs)
+ * - La cola es acotada; cuando se llena, la operación se rechaza con
+ *   PasswordHashingBusyException en lugar de acumular trabajo
+ * - Expone métricas de la cola (tamaño, activos, completados, rechazados) y el tiempo
+ *   de BCrypt por operación (auth.password, operation = encode | match)
+ *
+ * Además, upgradeEncoding indica que un hash debe regenerarse cuando su coste
+ * no coincide con el configurado, para re-hashear de forma transparente en el login.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder, DisposableBean, MeterBinder {
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    /** Timers de BCrypt; null hasta que se registran las métricas */
+    private volatile Timer encodeTimer;
+    private volatile Timer matchTimer;
+
+    /**
+     * @param strength Coste de BCrypt (log2 de las rondas)
+     * @param threads Número de hilos del pool; 0 o menos usa el número de CPUs
+     * @param queueCapacity Operaciones que pueden esperar en cola antes de rechazar
+     * @param timeoutMillis Tiempo máximo que el hilo llamante espera el resultado
+     */
+    public PooledPasswordEncoder(int strength, int threads, int queueCapacity, long timeoutMillis) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Calcula el hash en el pool sin bloquear al llamante.
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return submit(() -> timed(encodeTimer, () -> delegate.encode(rawPassword)));
+    }
+
+    /**
+     * Verifica la contraseña en el pool sin bloquear al llamante.
+     */
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> timed(matchTimer, () -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(matchesAsync(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Indica que el hash debe regenerarse si su coste difiere del configurado
+     * (tanto si es menor como si es mayor).
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return false;
+        }
+        try {
+            // Formato: $2a$10$<salt+hash>; el coste son los dos dígitos tras el segundo '$'
+            int cost = Integer.parseInt(encodedPassword.substring(4, 6));
+            return cost != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        encodeTimer = passwordTimer(registry, "encode");
+        matchTimer = passwordTimer(registry, "match");
+        Gauge.builder("auth.password.queue.size", this, PooledPasswordEncoder::getQueueSize).register(registry);
+        Gauge.builder("auth.password.active", this, PooledPasswordEncoder::getActiveCount).register(registry);
+        FunctionCounter.builder("auth.password.rejected", rejected, AtomicLong::get).register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new PasswordHashingBusyException("Demasiadas operaciones de contraseña en curso, intente mas tarde");
+        }
+    }
+
+    private static Timer passwordTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("auth.password")
+                .description("Tiempo de BCrypt por operación, sin contar la espera en cola")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    private static <T> T timed(Timer timer, Supplier<T> task) {
+        return timer != null ? timer.record(task) : task.get();
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new PasswordHashingBusyException("Tiempo de espera agotado al procesar la contraseña");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Operación de contraseña interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -10,8 +10,7 @@ import com.springboot.backend.brahian.usersapp.users_backend.auth.filter.JwtAuth
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import com.springboot.backend.brahian.usersapp.users_backend.auth.filter.JwtValidationFilter;
 
 /**
@@ -28,6 +27,30 @@ public class SpringSecurityConfig {
     @Autowired
     private AuthenticationConfiguration authenticationConfiguration;
 
+    /**
+     * Verificación de tokens JWT (con caché) que comparte el filtro de validación.
+     */
+    @Autowired
+    private JwtTokenVerifier tokenVerifier;
+
+    /**
+     * Lectores y escritores JSON compartidos por los filtros JWT.
+     */
+    @Autowired
+    private AuthJsonCodec jsonCodec;
+
+    /**
+     * Emisor de tokens JWT que usa el filtro de login.
+     */
+    @Autowired
+    private JwtTokenIssuer tokenIssuer;
+
+    /**
+     * Limitador de intentos de login (por IP y por usuario) del filtro de login.
+     */
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
     /**
      * Bean que proporciona el AuthenticationManager de Spring Security.
      * Este bean es necesario para el filtro JWT personalizado.
@@ -41,12 +64,20 @@ public class SpringSecurityConfig {
 
     /**
      * Bean que proporciona el codificador de contraseñas.
-     * Utiliza BCrypt para el hash seguro de contraseñas.
-     * @return PasswordEncoder configurado con BCrypt
+     * Utiliza BCrypt para el hash seguro de contraseñas, ejecutado en un pool de hilos
+     * dedicado y acotado para no bloquear los hilos del servidor ni las transacciones.
+     * @param strength Coste de BCrypt; los hashes con otro coste se regeneran en el login
+     * @param threads Hilos del pool (0 = número de CPUs)
+     * @param queueCapacity Operaciones en espera antes de rechazar con 503
+     * @param timeoutMillis Espera máxima del hilo llamante
+     * @return PasswordEncoder configurado con BCrypt en un pool acotado
      */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PooledPasswordEncoder passwordEncoder(@Value("${auth.password.bcrypt-strength:10}") int strength,
+            @Value("${auth.password.hashing-threads:0}") int threads,
+            @Value("${auth.password.queue-capacity:200}") int queueCapacity,
+            @Value("${auth.password.timeout-ms:10000}") long timeoutMillis) {
+        return new PooledPasswordEncoder(strength, threads, queueCapacity, timeoutMillis);
     }
 
     /**
@@ -62,18 +93,26 @@ public class SpringSecurityConfig {
 
         return http.authorizeHttpRequests(authz -> authz
                 // Endpoints públicos - accesibles sin autenticación
-                .requestMatchers(HttpMethod.GET, "/api/users", "/api/users/page/{page}").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/users", "/api/users/page/{page}", "/api/users/scroll", "/api/users/availability").permitAll()
+                // Búsqueda y autocompletado de la administración (antes de /{id}, que también coincide con /search)
+                .requestMatchers(HttpMethod.GET, "/api/users/search", "/api/users/search/suggest").hasRole("ADMIN")
                 // Endpoints que requieren rol USER o ADMIN
                 .requestMatchers(HttpMethod.GET, "/api/users/{id}").hasAnyRole("USER", "ADMIN")
                 // Endpoints que requieren rol ADMIN exclusivamente
-                .requestMatchers(HttpMethod.POST, "/api/users").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/api/users", "/api/users/batch").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PUT, "/api/users/{id}").hasRole("ADMIN")
-                .requestMatchers(HttpMethod.DELETE, "/api/users/{id}").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.DELETE, "/api/users", "/api/users/{id}").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.PATCH, "/api/users/roles").hasRole("ADMIN")
+                // Actuator: health es público, las métricas solo para ADMIN
+                .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                // Claves públicas de los tokens para otros servicios y gateways
+                .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Cualquier otra petición requiere autenticación
                 .anyRequest().authenticated())
                 // Agrega el filtro JWT personalizado para la autenticación
-                .addFilter(new JwtAuthenticationFilter(authenticationManager()))
-                .addFilter(new JwtValidationFilter(authenticationManager()))
+                .addFilter(new JwtAuthenticationFilter(authenticationManager(), jsonCodec, tokenIssuer, loginRateLimiter))
+                .addFilter(new JwtValidationFilter(authenticationManager(), tokenVerifier, jsonCodec))
                 // Deshabilita CSRF ya que se usa JWT (stateless)
                 .csrf(config -> config.disable())
                 // Configura la gestión de sesiones como stateless (sin estado)
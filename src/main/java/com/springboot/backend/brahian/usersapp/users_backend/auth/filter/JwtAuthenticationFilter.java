@@ -7,24 +7,26 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
 
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.DatabindException;
-import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.AuthJsonCodec;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.JwtTokenIssuer;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.LoginRateLimiter;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.PasswordHashingBusyException;
 import java.io.IOException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import org.springframework.security.core.AuthenticationException;
-import io.jsonwebtoken.Jwts;
 import java.util.Date;
 import static com.springboot.backend.brahian.usersapp.users_backend.auth.TokenJwtConfig.*;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Collection;
 import org.springframework.security.core.GrantedAuthority;
-import io.jsonwebtoken.Claims;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerMapping;
 
 /**
  * Filtro de autenticación JWT que extiende UsernamePasswordAuthenticationFilter.
@@ -36,43 +38,78 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
     /** Gestor de autenticación que valida las credenciales del usuario */
     private AuthenticationManager authenticationManager;
 
+    /** Lectores y escritores JSON compartidos, construidos una sola vez */
+    private final AuthJsonCodec jsonCodec;
+
+    /** Genera el token JWT de los logins correctos */
+    private final JwtTokenIssuer tokenIssuer;
+
+    /** Limita los intentos por IP y los fallos por usuario antes de autenticar */
+    private final LoginRateLimiter rateLimiter;
+
+    /** Atributo de la petición con el username cuyo intento se consumió, para devolverlo */
+    private static final String USERNAME_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".username";
+
+    /** URL que procesa el filtro (la de UsernamePasswordAuthenticationFilter por defecto) */
+    private static final String LOGIN_PATTERN = "/login";
+
     /**
      * Constructor que recibe el AuthenticationManager para validar credenciales
      * @param authenticationManager Gestor de autenticación de Spring Security
+     * @param jsonCodec Codec JSON compartido por los filtros de autenticación
+     * @param tokenIssuer Emisor de tokens JWT
+     * @param rateLimiter Limitador de intentos de login
      */
-    public JwtAuthenticationFilter(AuthenticationManager authenticationManager) {
+    public JwtAuthenticationFilter(AuthenticationManager authenticationManager, AuthJsonCodec jsonCodec,
+            JwtTokenIssuer tokenIssuer, LoginRateLimiter rateLimiter) {
         this.authenticationManager = authenticationManager;
+        this.jsonCodec = jsonCodec;
+        this.tokenIssuer = tokenIssuer;
+        this.rateLimiter = rateLimiter;
     }
 
     /**
      * Método que se ejecuta cuando se intenta autenticar un usuario.
      * Lee las credenciales del cuerpo de la solicitud HTTP y crea un token de autenticación.
+     * Antes de consultar la base de datos o BCrypt responde 429 si la IP o el usuario superaron
+     * su límite de intentos, y 400 si el cuerpo no trae un JSON con username y password.
      * 
      * @param request Solicitud HTTP entrante
      * @param response Respuesta HTTP de salida
-     * @return Objeto Authentication con el resultado de la autenticación
+     * @return Objeto Authentication con el resultado de la autenticación, o null si ya se respondió
      * @throws AuthenticationException Si la autenticación falla
      */
     @Override
     public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response)
             throws AuthenticationException {
 
-        String username = null;
-        String password = null;
+        // Este filtro atiende /login como si fuera un handler: publica el patrón para las métricas por uri
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, LOGIN_PATTERN);
+
+        long retryAfter = rateLimiter.acquireForIp(request.getRemoteAddr());
+        if (retryAfter > 0) {
+            return reject(request, response, retryAfter);
+        }
 
+        // Lee el cuerpo de la solicitud HTTP y lo convierte a un objeto User
+        // para extraer el nombre de usuario y contraseña
+        User user;
         try {
-            // Lee el cuerpo de la solicitud HTTP y lo convierte a un objeto User
-            // para extraer el nombre de usuario y contraseña
-            User user = new ObjectMapper().readValue(request.getInputStream(), User.class);
-            username = user.getUsername();
-            password = user.getPassword();
-        } catch (StreamReadException e) {
-            e.printStackTrace();
-        } catch (DatabindException e) {
-            e.printStackTrace();
+            user = jsonCodec.readUser(request.getInputStream());
         } catch (IOException e) {
-            e.printStackTrace();
+            user = null;
+        }
+        if (user == null || !StringUtils.hasText(user.getUsername()) || user.getPassword() == null) {
+            return reject(request, response, 0);
         }
+        String username = user.getUsername();
+        String password = user.getPassword();
+
+        retryAfter = rateLimiter.acquireForUsername(username);
+        if (retryAfter > 0) {
+            return reject(request, response, retryAfter);
+        }
+        request.setAttribute(USERNAME_ATTRIBUTE, username);
 
         // Crea un token de autenticación con las credenciales extraídas
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(username,
@@ -97,6 +134,9 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
     protected void successfulAuthentication(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
             Authentication authResult) throws IOException, ServletException {
 
+        // Un login correcto no gasta intentos del usuario
+        refundAttempt(request);
+
         // Obtiene el usuario autenticado del resultado de la autenticación
         org.springframework.security.core.userdetails.User user = (org.springframework.security.core.userdetails.User) authResult
                 .getPrincipal();
@@ -104,21 +144,8 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
         // Obtiene los roles/autoridades del usuario autenticado
         Collection<? extends GrantedAuthority> roles = authResult.getAuthorities();
 
-        // Crea los claims (reclamaciones) del token JWT
-        Claims claims = Jwts
-                .claims()
-                .add("authorities", new ObjectMapper().writeValueAsString(roles)) // Convierte roles a JSON
-                .add("username", username) // Agrega el nombre de usuario
-                .build();
-
-        // Construye el token JWT con toda la información necesaria
-        String jwt = Jwts.builder()
-                .subject(username) // Sujeto del token (nombre de usuario)
-                .claims(claims) // Claims personalizados (roles y username)
-                .signWith(SECRET_KEY) // Firma el token con la clave secreta
-                .issuedAt(new Date()) // Fecha de emisión
-                .expiration(new Date(System.currentTimeMillis() + 3600000)) // Expira en 1 hora (3600000 ms)
-                .compact(); // Genera el token compacto
+        // Construye y firma el token JWT con el usuario y sus roles (expira en 1 hora)
+        String jwt = tokenIssuer.issue(username, roles);
 
         // Agrega el token JWT al header de autorización de la respuesta
         response.addHeader(HEADER_AUTHORIZATION, PREFIX_TOKEN + jwt);
@@ -130,7 +157,7 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
         body.put("message", String.format("Hola %s has iniciado sesion con exito", username)); // Mensaje de bienvenida
 
         // Escribe la respuesta JSON en el cuerpo de la respuesta HTTP
-        response.getWriter().write(new ObjectMapper().writeValueAsString(body));
+        response.getWriter().write(jsonCodec.writeMap(body));
         response.setContentType(CONTENT_TYPE); // Establece el tipo de contenido como JSON
         response.setStatus(200); // Establece el código de estado HTTP como 200 (OK)
     }
@@ -150,17 +177,66 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
             AuthenticationException failed) throws IOException, ServletException {
         // La implementación por defecto de Spring Security maneja la respuesta de error
         // Se puede personalizar aquí si se desea un comportamiento específico
+        // Si el pool de BCrypt está saturado se responde 503 para que el cliente reintente
+        boolean busy = failed instanceof PasswordHashingBusyException;
+        if (busy) {
+            // No se llegó a comprobar la contraseña: el intento no cuenta como fallo
+            refundAttempt(request);
+            response.setHeader("Retry-After", "1");
+            writeError(request, response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Service Unavailable",
+                    failed.getMessage());
+            return;
+        }
+
+        // Los fallos de credenciales conservan el intento consumido del usuario
+        writeError(request, response, HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized", failed.getMessage());
+    }
+
+    /**
+     * Devuelve al limitador el intento del usuario consumido en attemptAuthentication.
+     */
+    private void refundAttempt(HttpServletRequest request) {
+        Object username = request.getAttribute(USERNAME_ATTRIBUTE);
+        if (username != null) {
+            rateLimiter.refundUsername(username.toString());
+        }
+    }
+
+    /**
+     * Responde sin autenticar: 429 con Retry-After si se superó un límite, 400 si el cuerpo no es válido.
+     * @return Siempre null, para que el filtro no continúe con la petición
+     */
+    private Authentication reject(HttpServletRequest request, HttpServletResponse response, long retryAfter) {
+        try {
+            if (retryAfter > 0) {
+                response.setHeader("Retry-After", String.valueOf(retryAfter));
+                writeError(request, response, 429, "Too Many Requests",
+                        "Demasiados intentos de login, intenta de nuevo en " + retryAfter + " segundos");
+            } else {
+                writeError(request, response, HttpServletResponse.SC_BAD_REQUEST, "Bad Request",
+                        "El cuerpo debe ser un JSON con username y password");
+            }
+        } catch (IOException e) {
+            throw new AuthenticationServiceException("No se pudo escribir la respuesta", e);
+        }
+        return null;
+    }
+
+    /**
+     * Escribe el cuerpo de error JSON común a todas las respuestas fallidas del login.
+     */
+    private void writeError(HttpServletRequest request, HttpServletResponse response, int status, String error,
+            String message) throws IOException {
         Map<String, Object> errorDetails = new HashMap<>();
         errorDetails.put("timestamp", new Date());
-        errorDetails.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-        errorDetails.put("error", "Unauthorized");
-        errorDetails.put("message", failed.getMessage());
+        errorDetails.put("status", status);
+        errorDetails.put("error", error);
+        errorDetails.put("message", message);
         errorDetails.put("path", request.getServletPath());
 
-        response.getWriter().write(new ObjectMapper().writeValueAsString(errorDetails));
+        response.getWriter().write(jsonCodec.writeMap(errorDetails));
         response.setContentType(CONTENT_TYPE);
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        
+        response.setStatus(status);
     }
 
 }
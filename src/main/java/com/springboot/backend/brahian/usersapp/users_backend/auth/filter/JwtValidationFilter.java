@@ -9,16 +9,11 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import static com.springboot.backend.brahian.usersapp.users_backend.auth.TokenJwtConfig.*;
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import java.util.Arrays;
-import java.util.Collection;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.AuthJsonCodec;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.JwtTokenVerifier;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -38,12 +33,23 @@ import jakarta.servlet.http.HttpServletResponse;
  */
 public class JwtValidationFilter extends BasicAuthenticationFilter {
 
+    /** Verificación de tokens compartida con la API reactiva; usa una caché de tokens ya verificados */
+    private final JwtTokenVerifier tokenVerifier;
+
+    /** Lectores y escritores JSON compartidos, construidos una sola vez */
+    private final AuthJsonCodec jsonCodec;
+
     /**
      * Constructor que recibe el AuthenticationManager para gestionar la autenticación
      * @param authenticationManager Manager de autenticación de Spring Security
+     * @param tokenVerifier Verificador de tokens JWT
+     * @param jsonCodec Codec JSON compartido por los filtros de autenticación
      */
-    public JwtValidationFilter(AuthenticationManager authenticationManager) {
+    public JwtValidationFilter(AuthenticationManager authenticationManager, JwtTokenVerifier tokenVerifier,
+            AuthJsonCodec jsonCodec) {
         super(authenticationManager);
+        this.tokenVerifier = tokenVerifier;
+        this.jsonCodec = jsonCodec;
     }
 
     /**
@@ -64,42 +70,20 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws IOException, ServletException {
 
-        // Obtiene el header de autorización de la petición
-        String header = request.getHeader(HEADER_AUTHORIZATION);
+        // Obtiene el token del header de autorización, sin el prefijo (ej: "Bearer ")
+        String token = tokenVerifier.resolveToken(request.getHeader(HEADER_AUTHORIZATION));
 
         // Si no hay header de autorización o no comienza con el prefijo correcto,
         // continúa con la cadena de filtros sin autenticación
-        if (header == null || !header.startsWith(PREFIX_TOKEN)) {
+        if (token == null) {
             chain.doFilter(request, response);
             return;
         }
 
-        // Extrae el token JWT removiendo el prefijo (ej: "Bearer ")
-        String token = header.replace(PREFIX_TOKEN, "");
-        
         try {
-            // Verifica y parsea el token JWT usando la clave secreta
-            // Claims contiene toda la información del token (username, roles, expiración, etc.)
-            Claims claims = Jwts.parser().verifyWith(SECRET_KEY).build().parseSignedClaims(token).getPayload();
-            
-            // Extrae el nombre de usuario del token (subject)
-            String username = claims.getSubject();
-            // String username2 = (String) claims.get("username"); // Forma alternativa de obtener username
-            
-            // Extrae los roles/autoridades del token
-            Object authoritiesClaims = claims.get("authorities");
-
-            // Convierte los roles del token en objetos GrantedAuthority de Spring Security
-            // Usa ObjectMapper con un mixin personalizado para mapear correctamente los roles
-            Collection<? extends GrantedAuthority> roles = Arrays.asList(new ObjectMapper()
-            .addMixIn(SimpleGrantedAuthority.class, SimpleGrantedAuthorityJsonCreator.class)
-                    .readValue(authoritiesClaims.toString().getBytes(), SimpleGrantedAuthority[].class));
-
-            // Crea un token de autenticación con el usuario y sus roles
-            // El password se establece como null ya que no es necesario en este punto
-            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(username, null, 
-                    roles);
-            
+            // Verifica la firma y reconstruye el usuario y sus roles (o los toma de la caché)
+            UsernamePasswordAuthenticationToken authenticationToken = tokenVerifier.verify(token);
+
             // Establece la autenticación en el contexto de seguridad de Spring
             // Esto permite que otros componentes accedan a la información del usuario autenticado
             SecurityContextHolder.getContext().setAuthentication(authenticationToken);
@@ -114,7 +98,7 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
             body.put("message", "El token es invalido!");
 
             // Escribe la respuesta de error en formato JSON
-            response.getWriter().write(new ObjectMapper().writeValueAsString(body));
+            response.getWriter().write(jsonCodec.writeMap(body));
             response.setStatus(401); // Código de estado: Unauthorized
             response.setContentType(CONTENT_TYPE); // Establece el tipo de contenido como JSON
         }
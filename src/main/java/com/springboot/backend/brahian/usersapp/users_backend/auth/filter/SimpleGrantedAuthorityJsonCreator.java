@@ -21,12 +21,12 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  * - Permite reconstruir correctamente los objetos SimpleGrantedAuthority
  * 
  * USO:
- * - Se configura en JwtValidationFilter como mixin:
+ * - Se configura una sola vez en AuthJsonCodec como mixin:
  *   .addMixIn(SimpleGrantedAuthority.class, SimpleGrantedAuthorityJsonCreator.class)
  * - No se instancia directamente, solo se usa como configuración de Jackson
  * 
  * @author Sistema de Autenticación JWT
- * @see JwtValidationFilter
+ * @see com.springboot.backend.brahian.usersapp.users_backend.auth.AuthJsonCodec
  * @see SimpleGrantedAuthority
  */
 public abstract class SimpleGrantedAuthorityJsonCreator {
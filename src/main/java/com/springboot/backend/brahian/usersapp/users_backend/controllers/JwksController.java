@@ -0,0 +1,41 @@
+package com.springboot.backend.brahian.usersapp.users_backend.controllers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.springboot.backend.brahian.usersapp.users_backend.auth.JwtKeyRing;
+
+import io.jsonwebtoken.security.Jwk;
+
+/**
+ * Claves públicas de firma de los tokens (RFC 7517), para que otros servicios y gateways
+ * verifiquen los tokens ES256/EdDSA localmente sin llamar a este servicio.
+ */
+@RestController
+public class JwksController {
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    @Value("${auth.jwt.jwks.max-age:PT30M}")
+    private Duration maxAge;
+
+    /**
+     * JWKS público y cacheable: las claves nuevas se publican antes de firmar con ellas
+     * (auth.jwt.rotation.activation-delay) y las retiradas siguen publicadas durante la gracia.
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Jwk<?>>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .body(keyRing.jwks());
+    }
+}
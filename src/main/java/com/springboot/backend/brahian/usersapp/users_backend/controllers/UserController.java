@@ -8,7 +8,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import java.util.Collections;
 
+import com.springboot.backend.brahian.usersapp.users_backend.auth.PasswordHashingBusyException;
 import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.services.DuplicateUserException;
+import com.springboot.backend.brahian.usersapp.users_backend.services.RoleNotFoundException;
 import com.springboot.backend.brahian.usersapp.users_backend.services.UserService;
 
 import java.util.List;
@@ -17,39 +20,173 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.validation.BindingResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.RequestParam;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserImportResult;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserRolesRequest;
+import com.springboot.backend.brahian.usersapp.users_backend.services.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
 import java.util.Map;
 import java.util.HashMap;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.context.request.WebRequest;
 import com.springboot.backend.brahian.usersapp.users_backend.models.UserRequest;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserSearchRequest;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserView;
 
 @CrossOrigin(origins = "http://localhost:4200")
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final String CURSOR_PREFIX = "id:";
+
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${users.scroll.default-size:20}")
+    private int scrollDefaultSize;
+
+    @Value("${users.scroll.max-size:100}")
+    private int scrollMaxSize;
+
+    @Value("${users.search.suggest-size:10}")
+    private int suggestSize;
+
+    @Value("${users.bulk.max-ids:1000}")
+    private int bulkMaxIds;
+
     @GetMapping
-    public List<User> getAllUsers() {
+    public List<UserView> getAllUsers() {
         return userService.getAllUsers();
     }
 
+    /**
+     * Exportación en streaming (NDJSON, un usuario por línea) cuando el cliente
+     * envía Accept: application/x-ndjson. Los usuarios se escriben a medida que se
+     * leen de la base de datos en lugar de cargar toda la tabla en memoria.
+     */
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                userService.streamAllUsers(user -> {
+                    try {
+                        writer.write(UserView.from(user));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+                out.write('\n');
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Página de usuarios con ETag débil calculado a partir de los ids, las versiones
+     * y el total; si coincide con If-None-Match se responde 304 sin serializar la página.
+     */
     @GetMapping("/page/{page}")
-    public Page<User> getAllUsers(@PathVariable Integer page) {
-        return userService.getAllUsers(PageRequest.of(page, 4));
+    public Page<UserView> getAllUsers(@PathVariable Integer page, WebRequest request) {
+        Page<UserView> users = userService.getAllUsers(PageRequest.of(page, 4));
+        if (request.checkNotModified(pageEtag(users))) {
+            return null;
+        }
+        return users;
+    }
+
+    /**
+     * Paginación por cursor: devuelve los usuarios siguientes al cursor "after"
+     * sin OFFSET ni COUNT, junto con el cursor opaco del siguiente bloque.
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<?> scrollUsers(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size) {
+        Long afterId;
+        try {
+            afterId = decodeCursor(after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Collections.singletonMap("error", "Cursor invalido"));
+        }
+        Slice<UserView> slice = userService.getUsersAfter(afterId, scrollLimit(size));
+        return ResponseEntity.status(HttpStatus.OK).body(sliceBody(slice));
+    }
+
+    /**
+     * Búsqueda de usuarios por prefijo de username, email, name y/o lastname
+     * (GET /api/users/search?email=ana&lastname=Ga), paginada con el mismo cursor que /scroll.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchUsers(UserSearchRequest search, @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size) {
+        Long afterId;
+        try {
+            afterId = decodeCursor(after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Collections.singletonMap("error", "Cursor invalido"));
+        }
+        Slice<UserView> slice = userService.searchUsers(search, afterId, scrollLimit(size));
+        return ResponseEntity.status(HttpStatus.OK).body(sliceBody(slice));
+    }
+
+    /**
+     * Autocompletado: usuarios cuyo username o email empieza por q.
+     */
+    @GetMapping("/search/suggest")
+    public ResponseEntity<?> suggestUsers(@RequestParam String q) {
+        if (q.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Collections.singletonMap("error", "El prefijo es obligatorio"));
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(userService.suggestUsers(q, suggestSize));
     }
 
+    /**
+     * Usuario por id con ETag fuerte (id y versión); responde 304 si el cliente ya lo tiene.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable Long id) {
+    public ResponseEntity<?> getUserById(@PathVariable Long id, WebRequest request) {
         Optional<User> user = userService.getUserById(id);
         if (user.isPresent()) {
-            return ResponseEntity.status(HttpStatus.OK).body(user.get());
+            String etag = userEtag(user.get());
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.status(HttpStatus.OK).eTag(etag).body(user.get());
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.singletonMap("error", "User not found"));
         }
@@ -64,12 +201,70 @@ public class UserController {
             });
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
         }
-        User newUser = userService.createUser(user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(newUser);
+        try {
+            User newUser = userService.createUser(user);
+            return ResponseEntity.status(HttpStatus.CREATED).body(newUser);
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (DataIntegrityViolationException e) {
+            return conflict(e);
+        }
+    }
+
+    /**
+     * Disponibilidad de un username y/o email para el formulario de registro,
+     * por ejemplo GET /api/users/availability?username=pepe → {"username": true}.
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<?> checkAvailability(@RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        if ((username == null || username.isBlank()) && (email == null || email.isBlank())) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Collections.singletonMap("error", "Se requiere username o email"));
+        }
+        Map<String, Boolean> body = new HashMap<>();
+        if (username != null && !username.isBlank()) {
+            body.put("username", userService.isUsernameAvailable(username));
+        }
+        if (email != null && !email.isBlank()) {
+            body.put("email", userService.isEmailAvailable(email));
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(body);
+    }
+
+    /**
+     * Importación masiva a partir de un arreglo JSON de usuarios.
+     * Devuelve el resultado de cada fila (creada, inválida o fallida).
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importUsers(@RequestBody List<User> users) {
+        return importReport(userImportService.importUsers(users.iterator()));
+    }
+
+    /**
+     * Importación masiva en NDJSON (un usuario por línea); las filas se leen
+     * a medida que llegan en lugar de cargar todo el cuerpo en memoria.
+     * Una línea mal formada queda como fila INVALID en el informe y la importación sigue,
+     * ya que los bloques anteriores pueden estar confirmados.
+     */
+    @PostMapping(value = "/batch", consumes = NDJSON)
+    public ResponseEntity<?> importUsersNdjson(HttpServletRequest request) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            return importReport(userImportService.importUsers(new NdjsonUsers(reader, objectMapper.readerFor(User.class))));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
+    /**
+     * Actualiza un usuario. Si se envía If-Match con el ETag leído, la actualización solo
+     * se aplica cuando el usuario no cambió entretanto; si cambió se responde 412.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateUser(@Valid @RequestBody UserRequest userRequest, BindingResult bindingResult, @PathVariable Long id) {
+    public ResponseEntity<?> updateUser(@Valid @RequestBody UserRequest userRequest, BindingResult bindingResult, @PathVariable Long id,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         if (bindingResult.hasErrors()) {
             Map<String, String> errors = new HashMap<>();
             bindingResult.getFieldErrors().forEach(err -> {
@@ -77,9 +272,23 @@ public class UserController {
             });
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
         }
-        Optional<User> updatedUser = userService.updateUser(userRequest, id);
+        Long expectedVersion;
+        try {
+            expectedVersion = versionFromEtag(ifMatch, id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Collections.singletonMap("error", "If-Match invalido"));
+        }
+        Optional<User> updatedUser;
+        try {
+            updatedUser = userService.updateUser(userRequest, id, expectedVersion);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(Collections.singletonMap("error", "El usuario fue modificado por otra peticion"));
+        } catch (DataIntegrityViolationException e) {
+            return conflict(e);
+        }
         if (updatedUser.isPresent()) {
-            return ResponseEntity.status(HttpStatus.OK).body(updatedUser.get());
+            return ResponseEntity.status(HttpStatus.OK).eTag(userEtag(updatedUser.get())).body(updatedUser.get());
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.singletonMap("error", "User not found"));
         }
@@ -96,4 +305,179 @@ public class UserController {
         }
     }
 
+    /**
+     * Borrado masivo: DELETE /api/users?ids=1,2,3 en una sola transacción.
+     */
+    @DeleteMapping
+    public ResponseEntity<?> deleteUsers(@RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > bulkMaxIds) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Collections.singletonMap("error", String.format("Se requieren entre 1 y %d ids", bulkMaxIds)));
+        }
+        int deleted = userService.deleteAllById(ids);
+        return ResponseEntity.status(HttpStatus.OK).body(Collections.singletonMap("deleted", deleted));
+    }
+
+    /**
+     * Cambio masivo de rol: concede (admin = true) o retira (admin = false) ROLE_ADMIN.
+     */
+    @PatchMapping("/roles")
+    public ResponseEntity<?> updateRoles(@Valid @RequestBody UserRolesRequest rolesRequest, BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            Map<String, String> errors = new HashMap<>();
+            bindingResult.getFieldErrors().forEach(err -> {
+                errors.put(err.getField(), err.getDefaultMessage());
+            });
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
+        }
+        if (rolesRequest.getIds().size() > bulkMaxIds) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Collections.singletonMap("error", String.format("Se admiten como maximo %d ids", bulkMaxIds)));
+        }
+        try {
+            int updated = userService.updateAdminRole(rolesRequest.getIds(), rolesRequest.isAdmin());
+            return ResponseEntity.status(HttpStatus.OK).body(Collections.singletonMap("updated", updated));
+        } catch (RoleNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 409 con el campo repetido; si la validación no lo detectó (dos altas simultáneas)
+     * lo rechaza el índice único y se responde con un mensaje genérico.
+     */
+    private static ResponseEntity<?> conflict(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateUserException duplicate) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Collections.singletonMap(duplicate.getField(), duplicate.getMessage()));
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Collections.singletonMap("error", "El username o el email ya estan en uso"));
+    }
+
+    private int scrollLimit(Integer size) {
+        return Math.min(Math.max(size == null ? scrollDefaultSize : size, 1), scrollMaxSize);
+    }
+
+    private static Map<String, Object> sliceBody(Slice<UserView> slice) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("content", slice.getContent());
+        body.put("size", slice.getNumberOfElements());
+        body.put("hasNext", slice.hasNext());
+        body.put("next", slice.hasNext()
+                ? encodeCursor(slice.getContent().get(slice.getNumberOfElements() - 1).id())
+                : null);
+        return body;
+    }
+
+    private static String userEtag(User user) {
+        return "\"" + user.getId() + "-" + user.getVersion() + "\"";
+    }
+
+    private static String pageEtag(Page<UserView> users) {
+        long hash = 17;
+        for (UserView user : users.getContent()) {
+            hash = 31 * hash + user.id();
+            hash = 31 * hash + (user.version() == null ? 0 : user.version());
+        }
+        hash = 31 * hash + users.getTotalElements();
+        return "W/\"" + users.getNumber() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Extrae la versión esperada de un If-Match ("id-version"). Devuelve null si no hay
+     * condición (cabecera ausente o "*"). If-Match usa la comparación fuerte (RFC 9110 §13.1.1),
+     * así que un ETag débil (W/) nunca coincide.
+     * @throws IllegalArgumentException si el ETag es débil, está mal formado o no corresponde a este usuario
+     */
+    private static Long versionFromEtag(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            throw new IllegalArgumentException("ETag debil");
+        }
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            throw new IllegalArgumentException("ETag mal formado");
+        }
+        value = value.substring(1, value.length() - 1);
+        String prefix = id + "-";
+        if (!value.startsWith(prefix)) {
+            throw new IllegalArgumentException("ETag de otro usuario");
+        }
+        return Long.valueOf(value.substring(prefix.length()));
+    }
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!value.startsWith(CURSOR_PREFIX)) {
+            throw new IllegalArgumentException("Cursor invalido");
+        }
+        return Long.valueOf(value.substring(CURSOR_PREFIX.length()));
+    }
+
+    private static ResponseEntity<?> importReport(List<UserImportResult> results) {
+        long created = results.stream().filter(r -> r.getStatus() == UserImportResult.Status.CREATED).count();
+        Map<String, Object> body = new HashMap<>();
+        body.put("created", created);
+        body.put("failed", results.size() - created);
+        body.put("results", results);
+        return ResponseEntity.status(HttpStatus.OK).body(body);
+    }
+
+
+    /**
+     * Usuarios de un cuerpo NDJSON, una línea cada vez (las líneas en blanco se ignoran).
+     * Cada línea se interpreta por separado: una mal formada lanza RuntimeJsonMappingException
+     * y la lectura sigue en la línea siguiente.
+     */
+    private static class NdjsonUsers implements Iterator<User> {
+
+        private final BufferedReader reader;
+
+        private final ObjectReader userReader;
+
+        private String line;
+
+        NdjsonUsers(BufferedReader reader, ObjectReader userReader) {
+            this.reader = reader;
+            this.userReader = userReader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (line == null || line.isBlank()) {
+                    line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public User next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String current = line;
+            line = null;
+            try {
+                return userReader.readValue(current);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeJsonMappingException(e.getOriginalMessage());
+            }
+        }
+    }
 }
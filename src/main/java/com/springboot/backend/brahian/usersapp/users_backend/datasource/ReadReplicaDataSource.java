@@ -0,0 +1,157 @@
+package com.springboot.backend.brahian.usersapp.users_backend.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * DataSource de solo lectura que reparte las conexiones entre las réplicas en round-robin.
+ *
+ * Si una réplica falla al entregar una conexión se marca como caída y se prueba la
+ * siguiente; si no queda ninguna disponible la conexión se pide al primario, de modo que
+ * las lecturas siguen funcionando aunque todas las réplicas estén caídas.
+ * checkHealth() se ejecuta periódicamente y vuelve a habilitar las réplicas que se recuperan.
+ *
+ * Se usa como readOnlyDataSource de un LazyConnectionDataSourceProxy: solo recibe las
+ * transacciones marcadas con readOnly = true.
+ */
+public class ReadReplicaDataSource extends AbstractDataSource implements MeterBinder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaDataSource.class);
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final int validationTimeoutSeconds;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    /**
+     * @param primary DataSource usado cuando no hay ninguna réplica disponible
+     * @param replicas Réplicas por nombre (el nombre se usa en logs y métricas)
+     * @param validationTimeoutSeconds Tiempo máximo de la comprobación de salud de cada réplica
+     */
+    public ReadReplicaDataSource(DataSource primary, Map<String, ? extends DataSource> replicas,
+            int validationTimeoutSeconds) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("Se requiere al menos una replica");
+        }
+        this.primary = primary;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        List<Replica> list = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> list.add(new Replica(name, dataSource)));
+        this.replicas = List.copyOf(list);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+        fallbacks.incrementAndGet();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Las replicas usan las credenciales de su pool");
+    }
+
+    /**
+     * Comprueba cada réplica y actualiza su estado (caída o disponible).
+     */
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-ms:10000}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                boolean valid = connection.isValid(validationTimeoutSeconds);
+                if (valid && !replica.healthy) {
+                    log.info("Replica {} disponible de nuevo", replica.name);
+                }
+                replica.healthy = valid;
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    public int getHealthyCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    public long getFallbackCount() {
+        return fallbacks.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replicas.healthy", this, ReadReplicaDataSource::getHealthyCount)
+                .description("Replicas de lectura disponibles")
+                .register(registry);
+        FunctionCounter.builder("datasource.replicas.fallbacks", fallbacks, AtomicLong::get)
+                .description("Lecturas enviadas al primario por no haber replicas disponibles")
+                .register(registry);
+        for (Replica replica : replicas) {
+            Gauge.builder("datasource.replica.up", replica, r -> r.healthy ? 1 : 0)
+                    .tag("pool", replica.name)
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void markDown(Replica replica, SQLException e) {
+        if (replica.healthy) {
+            log.warn("Replica {} no disponible, las lecturas pasan a otra replica o al primario: {}",
+                    replica.name, e.getMessage());
+        }
+        replica.healthy = false;
+    }
+}
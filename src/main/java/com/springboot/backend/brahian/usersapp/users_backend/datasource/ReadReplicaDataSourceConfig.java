@@ -0,0 +1,94 @@
+package com.springboot.backend.brahian.usersapp.users_backend.datasource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Envía las transacciones de solo lectura a las réplicas y el resto al primario.
+ *
+ * Se activa con datasource.replicas.enabled=true. El DataSource principal es un
+ * LazyConnectionDataSourceProxy: la conexión real se pide en la primera sentencia,
+ * cuando ya se sabe si la transacción es readOnly, y entonces se obtiene de
+ * ReadReplicaDataSource (réplicas) o del pool primario.
+ *
+ * Cada réplica tiene su propio pool Hikari (datasource.replicas.hikari.*), separado del
+ * primario (spring.datasource.hikari.*), y publica sus métricas hikaricp.* con el nombre del pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Value("${datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${datasource.replicas.validation-timeout-seconds:2}")
+    private int validationTimeoutSeconds;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replicas.hikari")
+    public HikariConfig replicaPoolConfig() {
+        return new HikariConfig();
+    }
+
+    @Bean
+    public ReadReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, HikariConfig replicaPoolConfig,
+            DataSourceProperties properties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            replicaPoolConfig.copyStateTo(config);
+            config.setJdbcUrl(replicaUrls.get(i).trim());
+            config.setPoolName("replica-" + (i + 1));
+            config.setReadOnly(true);
+            // No fallar al arrancar si una réplica está caída: queda marcada como no disponible
+            config.setInitializationFailTimeout(-1);
+            if (config.getUsername() == null) {
+                config.setUsername(properties.determineUsername());
+                config.setPassword(properties.determinePassword());
+            }
+            if (config.getDriverClassName() == null) {
+                config.setDriverClassName(properties.determineDriverClassName());
+            }
+            meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        return new ReadReplicaDataSource(primaryDataSource, replicas, validationTimeoutSeconds);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReadReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -1,11 +1,14 @@
 package com.springboot.backend.brahian.usersapp.users_backend.entities; 
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import lombok.Data;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Email;
@@ -17,6 +20,9 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.JoinColumn;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.util.ArrayList;
@@ -28,14 +34,20 @@ import com.springboot.backend.brahian.usersapp.users_backend.models.IUser;
 @Entity
 @Table(name = "users")
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users") // Caché de segundo nivel (ver hibernate-cache.conf)
 public class User implements IUser {
 
     public User() {
         this.roles = new ArrayList<>();
     }
 
+    // Secuencia con asignación por bloques (pooled): Hibernate reserva 50 ids por acceso
+    // y puede agrupar los INSERT en lotes JDBC, cosa imposible con IDENTITY.
+    // En MySQL la secuencia se emula con la tabla users_seq (ver migración V2)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotEmpty
@@ -52,13 +64,20 @@ public class User implements IUser {
     @Email
     private String email;
 
+    // Solo se lee del JSON de entrada (alta y login); el hash nunca se devuelve
     @NotEmpty
+    @JsonProperty(access = Access.WRITE_ONLY)
     private String password;
 
     @Transient
     @JsonProperty(access = Access.WRITE_ONLY)
     private boolean admin;
 
+    // Versión para bloqueo optimista; también se usa para calcular los ETag
+    @Version
+    @JsonProperty(access = Access.READ_ONLY)
+    private Long version;
+
     // Esta anotación evita problemas de serialización JSON con Hibernate
     // Ignora propiedades técnicas de Hibernate que no queremos mostrar en JSON
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
@@ -66,6 +85,7 @@ public class User implements IUser {
     // Define una relación muchos-a-muchos: Un usuario puede tener varios roles
     // y un rol puede pertenecer a varios usuarios
     @ManyToMany(fetch = FetchType.LAZY) // LAZY = Los roles se cargan solo cuando se necesitan (optimización)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users-roles") // Los ids de los roles también se cachean
     
     // Configura la tabla intermedia que conecta usuarios con roles
     @JoinTable(
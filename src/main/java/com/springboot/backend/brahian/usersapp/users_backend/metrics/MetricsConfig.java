@@ -0,0 +1,23 @@
+package com.springboot.backend.brahian.usersapp.users_backend.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Instrumentación de la capa de datos: registra SqlStatementCounter como StatementInspector
+ * de Hibernate. Los timers de controladores y servicios los configura Spring Boot
+ * (http.server.requests y @Timed, ver application.properties).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(
+            @Value("${sql.log.sample-rate:0}") double sampleRate) {
+        SqlStatementCounter counter = new SqlStatementCounter(sampleRate);
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+    }
+}
@@ -0,0 +1,55 @@
+package com.springboot.backend.brahian.usersapp.users_backend.metrics;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Registra cuántas sentencias SQL ejecuta cada petición en la métrica
+ * http.server.requests.sql, con las mismas etiquetas method y uri que http.server.requests.
+ *
+ * Solo cuenta las sentencias del hilo de la petición; el trabajo asíncrono (por ejemplo
+ * la exportación NDJSON) se ejecuta en otro hilo y no se incluye.
+ *
+ * Se registra antes que la cadena de Spring Security para contar también el SQL del login
+ * (JwtAuthenticationFilter) y registrar las peticiones rechazadas por JwtValidationFilter,
+ * que nunca llegan al DispatcherServlet.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = SqlStatementCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("http.server.requests.sql")
+                    .description("Sentencias SQL ejecutadas por petición")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.springboot.backend.brahian.usersapp.users_backend.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * StatementInspector de Hibernate que cuenta las sentencias SQL ejecutadas por el hilo
+ * de cada petición (ver SqlStatementCountFilter) y registra en el log una muestra de ellas.
+ *
+ * Sustituye a spring.jpa.show-sql, que imprimía todas las sentencias en stdout de forma
+ * síncrona: aquí solo se escribe la fracción configurada en sql.log.sample-rate (0 = ninguna).
+ * Las consultas lentas las registra Hibernate con hibernate.log_slow_query.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementCounter.class);
+
+    /** Contador del hilo actual; null fuera de una petición */
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private final double sampleRate;
+
+    public SqlStatementCounter(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Empieza a contar las sentencias del hilo actual.
+     */
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * Deja de contar y devuelve las sentencias ejecutadas desde start().
+     */
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("SQL (muestra): {}", sql);
+        }
+        return sql;
+    }
+}
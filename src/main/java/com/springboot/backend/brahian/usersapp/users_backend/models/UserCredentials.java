@@ -0,0 +1,15 @@
+package com.springboot.backend.brahian.usersapp.users_backend.models;
+
+/**
+ * Proyección con lo único que necesita el login: usuario, hash de la contraseña
+ * y el nombre de un rol. Se obtiene una fila por rol en una sola consulta.
+ */
+public interface UserCredentials {
+
+    String getUsername();
+
+    String getPassword();
+
+    String getRoleName();
+
+}
@@ -0,0 +1,32 @@
+package com.springboot.backend.brahian.usersapp.users_backend.models;
+
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * Resultado de una fila de la importación masiva de usuarios.
+ */
+@Data
+public class UserImportResult {
+
+    public enum Status { CREATED, INVALID, FAILED }
+
+    /** Posición de la fila en la petición (empezando en 0) */
+    private int index;
+
+    private String username;
+
+    private Status status;
+
+    /** Id asignado cuando la fila se creó */
+    private Long id;
+
+    /** Errores de validación por campo, o "error" con el motivo del fallo */
+    private Map<String, String> errors;
+
+    public UserImportResult(int index, String username) {
+        this.index = index;
+        this.username = username;
+    }
+}
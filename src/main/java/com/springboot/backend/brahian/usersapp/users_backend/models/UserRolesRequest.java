@@ -0,0 +1,14 @@
+package com.springboot.backend.brahian.usersapp.users_backend.models;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+@Data
+public class UserRolesRequest {
+    @NotEmpty
+    private List<Long> ids;
+
+    private boolean admin;
+}
@@ -0,0 +1,23 @@
+package com.springboot.backend.brahian.usersapp.users_backend.models;
+
+/**
+ * Proyección de los listados: columnas públicas del usuario y el nombre de un rol.
+ * Se obtiene una fila por usuario y rol; UserView.fromRows las agrupa.
+ */
+public interface UserRow {
+
+    Long getId();
+
+    String getName();
+
+    String getLastname();
+
+    String getUsername();
+
+    String getEmail();
+
+    Long getVersion();
+
+    String getRoleName();
+
+}
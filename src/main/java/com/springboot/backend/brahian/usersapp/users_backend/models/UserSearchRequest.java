@@ -0,0 +1,19 @@
+package com.springboot.backend.brahian.usersapp.users_backend.models;
+
+import lombok.Data;
+
+/**
+ * Filtros opcionales de GET /api/users/search. Cada campo informado se busca por prefijo
+ * y los campos se combinan con AND.
+ */
+@Data
+public class UserSearchRequest {
+
+    private String username;
+
+    private String email;
+
+    private String name;
+
+    private String lastname;
+}
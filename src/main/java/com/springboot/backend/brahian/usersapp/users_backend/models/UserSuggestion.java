@@ -0,0 +1,7 @@
+package com.springboot.backend.brahian.usersapp.users_backend.models;
+
+/**
+ * Resultado del autocompletado de usuarios: solo lo necesario para mostrar la sugerencia.
+ */
+public record UserSuggestion(Long id, String username, String email) {
+}
@@ -0,0 +1,43 @@
+package com.springboot.backend.brahian.usersapp.users_backend.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.springboot.backend.brahian.usersapp.users_backend.entities.Role;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+
+/**
+ * Usuario tal como lo devuelven los listados de /api/users: sin password ni proxies de
+ * Hibernate y con los roles reducidos a sus nombres (["ROLE_USER", "ROLE_ADMIN"]).
+ */
+public record UserView(Long id, String name, String lastname, String username, String email, Long version,
+        List<String> roles) {
+
+    public static UserView from(User user) {
+        return new UserView(user.getId(), user.getName(), user.getLastname(), user.getUsername(), user.getEmail(),
+                user.getVersion(), user.getRoles().stream().map(Role::getName).toList());
+    }
+
+    /**
+     * Agrupa las filas consecutivas del mismo usuario (las consultas ordenan por id).
+     */
+    public static List<UserView> fromRows(List<UserRow> rows) {
+        List<UserView> views = new ArrayList<>();
+        int start = 0;
+        while (start < rows.size()) {
+            UserRow first = rows.get(start);
+            List<String> roles = new ArrayList<>(2);
+            int end = start;
+            while (end < rows.size() && rows.get(end).getId().equals(first.getId())) {
+                if (rows.get(end).getRoleName() != null) {
+                    roles.add(rows.get(end).getRoleName());
+                }
+                end++;
+            }
+            views.add(new UserView(first.getId(), first.getName(), first.getLastname(), first.getUsername(),
+                    first.getEmail(), first.getVersion(), List.copyOf(roles)));
+            start = end;
+        }
+        return views;
+    }
+}
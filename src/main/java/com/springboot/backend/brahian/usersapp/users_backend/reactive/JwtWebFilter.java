@@ -0,0 +1,75 @@
+package com.springboot.backend.brahian.usersapp.users_backend.reactive;
+
+import static com.springboot.backend.brahian.usersapp.users_backend.auth.TokenJwtConfig.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.AuthJsonCodec;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.JwtTokenVerifier;
+
+import io.jsonwebtoken.JwtException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versión reactiva de JwtValidationFilter para la API /api/rx.
+ *
+ * Usa el mismo JwtTokenVerifier (y su caché), de modo que un token válido en la API
+ * servlet también lo es aquí. La autenticación se publica en el contexto de Reactor
+ * (ReactiveSecurityContextHolder) en lugar de un ThreadLocal. Un token inválido
+ * responde 401 con el mismo cuerpo JSON que el filtro servlet.
+ */
+public class JwtWebFilter implements WebFilter {
+
+    private final JwtTokenVerifier tokenVerifier;
+
+    private final AuthJsonCodec jsonCodec;
+
+    public JwtWebFilter(JwtTokenVerifier tokenVerifier, AuthJsonCodec jsonCodec) {
+        this.tokenVerifier = tokenVerifier;
+        this.jsonCodec = jsonCodec;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String token = tokenVerifier.resolveToken(exchange.getRequest().getHeaders().getFirst(HEADER_AUTHORIZATION));
+        if (token == null) {
+            return chain.filter(exchange);
+        }
+        UsernamePasswordAuthenticationToken authentication;
+        try {
+            authentication = tokenVerifier.verify(token);
+        } catch (JwtException e) {
+            return unauthorized(exchange.getResponse(), e.getMessage());
+        }
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
+    private Mono<Void> unauthorized(ServerHttpResponse response, String error) {
+        Map<String, String> body = new HashMap<>();
+        body.put("error", error);
+        body.put("message", "El token es invalido!");
+        byte[] json;
+        try {
+            json = jsonCodec.writeMap(body).getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().set("Content-Type", CONTENT_TYPE);
+        DataBuffer buffer = response.bufferFactory().wrap(json);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
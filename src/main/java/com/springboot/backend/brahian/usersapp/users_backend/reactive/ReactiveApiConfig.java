@@ -0,0 +1,144 @@
+package com.springboot.backend.brahian.usersapp.users_backend.reactive;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.AuthJsonCodec;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.JwtTokenVerifier;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import reactor.core.publisher.Mono;
+
+/**
+ * API de lectura reactiva (/api/rx/users) sobre WebFlux y R2DBC.
+ *
+ * Se activa con rx.server.enabled=true y se sirve en su propio servidor Reactor Netty
+ * (rx.server.port), en paralelo al Tomcat de la API servlet, para que las lecturas concurrentes del dashboard no ocupen hilos de Tomcat
+ * ni conexiones JDBC. Usa su propio pool R2DBC (rx.r2dbc.*) contra la misma base de datos.
+ *
+ * Las autoconfiguraciones R2DBC de Spring Boot están desactivadas (ver UsersBackendApplication):
+ * registrarían un segundo TransactionManager junto al de JPA.
+ */
+@Configuration
+@ConditionalOnProperty(name = "rx.server.enabled", havingValue = "true")
+public class ReactiveApiConfig implements DisposableBean {
+
+    @Value("${rx.r2dbc.url}")
+    private String r2dbcUrl;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${rx.r2dbc.pool.max-size:10}")
+    private int maxPoolSize;
+
+    @Value("${rx.server.port:8081}")
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ConnectionPool connectionPool;
+
+    /**
+     * El pool no se publica como bean: un ConnectionFactory en el contexto hace que Spring Boot
+     * deje de configurar el DataSource JDBC que usa JPA.
+     */
+    @Bean
+    public DatabaseClient databaseClient() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxPoolSize)
+                .maxAcquireTime(Duration.ofSeconds(5))
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Bean
+    public ReactiveApiServer reactiveApiServer(ReactiveUserHandler handler, JwtTokenVerifier tokenVerifier,
+            AuthJsonCodec jsonCodec) {
+        RouterFunction<ServerResponse> routes = RouterFunctions.route()
+                .path("/api/rx/users", builder -> builder
+                        .GET("", handler::getAllUsers)
+                        .GET("/page/{page}", handler::getUsersPage)
+                        .GET("/{id}", hasAnyRole("ROLE_USER", "ROLE_ADMIN").apply(handler::getUserById)))
+                .build();
+
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+
+        HttpHandler httpHandler = WebHttpHandlerBuilder.webHandler(RouterFunctions.toWebHandler(routes, strategies))
+                .filter(corsFilter(), new JwtWebFilter(tokenVerifier, jsonCodec))
+                .build();
+        return new ReactiveApiServer(httpHandler, port);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+
+    /**
+     * Mismas reglas que SpringSecurityConfig: 401 sin autenticación y 403 sin el rol requerido.
+     */
+    private static HandlerFilterFunction<ServerResponse, ServerResponse> hasAnyRole(String... roles) {
+        Set<String> required = Set.of(roles);
+        return (request, next) -> ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .flatMap(authentication -> authentication.getAuthorities().stream()
+                        .anyMatch(authority -> required.contains(authority.getAuthority()))
+                                ? next.handle(request)
+                                : ServerResponse.status(HttpStatus.FORBIDDEN).build())
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.status(HttpStatus.UNAUTHORIZED).build()));
+    }
+
+    private static CorsWebFilter corsFilter() {
+        CorsConfiguration config = new CorsConfiguration();
+        config.setAllowedOrigins(List.of("http://localhost:4200"));
+        config.setAllowedMethods(List.of("GET"));
+        config.setAllowedHeaders(List.of("*"));
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", config);
+        return new CorsWebFilter(source);
+    }
+}
@@ -0,0 +1,56 @@
+package com.springboot.backend.brahian.usersapp.users_backend.reactive;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+
+/**
+ * Servidor Reactor Netty de la API reactiva. Arranca y se detiene junto con el contexto
+ * de Spring, igual que el Tomcat de la API servlet.
+ */
+public class ReactiveApiServer implements SmartLifecycle {
+
+    private final HttpHandler httpHandler;
+    private final int port;
+
+    private volatile WebServer webServer;
+
+    /**
+     * @param httpHandler Rutas y filtros de la API reactiva
+     * @param port Puerto de escucha; 0 elige uno libre (útil en los tests)
+     */
+    public ReactiveApiServer(HttpHandler httpHandler, int port) {
+        this.httpHandler = httpHandler;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        WebServer server = new NettyReactiveWebServerFactory(port).getWebServer(httpHandler);
+        server.start();
+        webServer = server;
+    }
+
+    @Override
+    public void stop() {
+        WebServer server = webServer;
+        if (server != null) {
+            server.stop();
+            webServer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return webServer != null;
+    }
+
+    /**
+     * Puerto real en el que escucha el servidor (o -1 si no está arrancado).
+     */
+    public int getPort() {
+        WebServer server = webServer;
+        return server != null ? server.getPort() : -1;
+    }
+}
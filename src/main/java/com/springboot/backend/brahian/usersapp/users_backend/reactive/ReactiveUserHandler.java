@@ -0,0 +1,86 @@
+package com.springboot.backend.brahian.usersapp.users_backend.reactive;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserView;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Endpoints de lectura de /api/rx/users con los mismos cuerpos que UserController (UserView en
+ * la lista y la página, el usuario completo por id), pero sin bloquear hilos mientras se espera
+ * a la base de datos. La página trae content, number, size, totalElements y totalPages.
+ */
+@Component
+@ConditionalOnProperty(name = "rx.server.enabled", havingValue = "true")
+public class ReactiveUserHandler {
+
+    private static final int PAGE_SIZE = 4;
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    /** Filas que se piden a la base de datos por adelantado al emitir la lista completa */
+    @Value("${users.export.batch-size:100}")
+    private int prefetch;
+
+    /**
+     * Lista completa como arreglo JSON o, con Accept: application/x-ndjson, un usuario por línea.
+     * Los usuarios se escriben a medida que llegan de la base de datos.
+     */
+    public Mono<ServerResponse> getAllUsers(ServerRequest request) {
+        MediaType mediaType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok()
+                .contentType(mediaType)
+                .body(userRepository.findAll().limitRate(prefetch).map(UserView::from), UserView.class);
+    }
+
+    public Mono<ServerResponse> getUsersPage(ServerRequest request) {
+        int page;
+        try {
+            page = Integer.parseInt(request.pathVariable("page"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue(Collections.singletonMap("error", "Pagina invalida"));
+        }
+        if (page < 0) {
+            return ServerResponse.badRequest().bodyValue(Collections.singletonMap("error", "Pagina invalida"));
+        }
+        return Mono.zip(userRepository.findPage(page, PAGE_SIZE).map(UserView::from).collectList(), userRepository.count())
+                .flatMap(result -> {
+                    long total = result.getT2();
+                    Map<String, Object> body = new HashMap<>();
+                    body.put("content", result.getT1());
+                    body.put("number", page);
+                    body.put("size", PAGE_SIZE);
+                    body.put("totalElements", total);
+                    body.put("totalPages", (total + PAGE_SIZE - 1) / PAGE_SIZE);
+                    return ServerResponse.ok().bodyValue(body);
+                });
+    }
+
+    public Mono<ServerResponse> getUserById(ServerRequest request) {
+        Long id;
+        try {
+            id = Long.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue(Collections.singletonMap("error", "Id invalido"));
+        }
+        return userRepository.findById(id)
+                .flatMap(user -> ServerResponse.ok().bodyValue(user))
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.status(HttpStatus.NOT_FOUND)
+                        .bodyValue(Collections.singletonMap("error", "User not found"))));
+    }
+}
@@ -0,0 +1,108 @@
+package com.springboot.backend.brahian.usersapp.users_backend.reactive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.springboot.backend.brahian.usersapp.users_backend.entities.Role;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lecturas no bloqueantes de usuarios con R2DBC sobre las mismas tablas que usa JPA
+ * (users, users_roles y roles).
+ *
+ * Cada consulta une el usuario con sus roles (una fila por rol) ordenando por id, y las
+ * filas consecutivas del mismo usuario se agrupan en un único User. Así una página o la
+ * lista completa se leen en una sola sentencia y la lista se emite a medida que llega,
+ * respetando la demanda del suscriptor.
+ *
+ * El password no se lee: la API reactiva es solo de consulta.
+ */
+@Repository
+@ConditionalOnProperty(name = "rx.server.enabled", havingValue = "true")
+public class ReactiveUserRepository {
+
+    private static final String COLUMNS = "u.id, u.name, u.lastname, u.username, u.email, u.version, "
+            + "r.id as role_id, r.name as role_name";
+
+    private static final String JOIN_ROLES = " left join users_roles ur on ur.user_id = u.id"
+            + " left join roles r on r.id = ur.role_id";
+
+    /** Fila de la consulta: un usuario con uno de sus roles (o sin rol) */
+    private record UserRow(User user, Role role) {
+    }
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Mono<User> findById(Long id) {
+        return users(databaseClient.sql("select " + COLUMNS + " from users u" + JOIN_ROLES
+                + " where u.id = :id order by r.id")
+                .bind("id", id))
+                .next();
+    }
+
+    /**
+     * Página de usuarios ordenados por id; el LIMIT se aplica a los usuarios, no a las filas del join.
+     */
+    public Flux<User> findPage(int page, int size) {
+        return users(databaseClient.sql("select " + COLUMNS
+                + " from (select id, name, lastname, username, email, version from users"
+                + " order by id limit :limit offset :offset) u" + JOIN_ROLES
+                + " order by u.id, r.id")
+                .bind("limit", size)
+                .bind("offset", (long) page * size));
+    }
+
+    /**
+     * Todos los usuarios en streaming; la base de datos entrega las filas según la demanda.
+     */
+    public Flux<User> findAll() {
+        return users(databaseClient.sql("select " + COLUMNS + " from users u" + JOIN_ROLES
+                + " order by u.id, r.id"));
+    }
+
+    public Mono<Long> count() {
+        return databaseClient.sql("select count(*) as total from users")
+                .map(row -> row.get("total", Long.class))
+                .one();
+    }
+
+    private static Flux<User> users(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.map(ReactiveUserRepository::toRow)
+                .all()
+                .bufferUntilChanged(row -> row.user().getId())
+                .map(rows -> {
+                    User user = rows.get(0).user();
+                    for (UserRow row : rows) {
+                        if (row.role() != null) {
+                            user.getRoles().add(row.role());
+                        }
+                    }
+                    return user;
+                });
+    }
+
+    private static UserRow toRow(Readable row) {
+        User user = new User();
+        user.setId(row.get("id", Long.class));
+        user.setName(row.get("name", String.class));
+        user.setLastname(row.get("lastname", String.class));
+        user.setUsername(row.get("username", String.class));
+        user.setEmail(row.get("email", String.class));
+        user.setVersion(row.get("version", Long.class));
+        Long roleId = row.get("role_id", Long.class);
+        Role role = null;
+        if (roleId != null) {
+            role = new Role();
+            role.setId(roleId);
+            role.setName(row.get("role_name", String.class));
+        }
+        return new UserRow(user, role);
+    }
+}
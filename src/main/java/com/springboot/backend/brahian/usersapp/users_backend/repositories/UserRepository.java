@@ -1,17 +1,134 @@
 package com.springboot.backend.brahian.usersapp.users_backend.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 
 import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import jakarta.persistence.QueryHint;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserCredentials;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserRow;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserSuggestion;
 
 @Repository
-public interface UserRepository extends CrudRepository<User, Long> {
+public interface UserRepository extends CrudRepository<User, Long>, JpaSpecificationExecutor<User> {
 
     Page<User> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByUsername(String username);
 
+    // Comprobaciones de unicidad sobre los índices únicos (migraciones V1 y V4)
+    boolean existsByUsername(String username);
+
+    boolean existsByUsernameAndIdNot(String username, Long id);
+
+    boolean existsByEmail(String email);
+
+    boolean existsByEmailAndIdNot(String email, Long id);
+
+    // Listados: solo las columnas que se devuelven (sin password), una fila por usuario y rol
+    String USER_ROWS = "select u.id as id, u.name as name, u.lastname as lastname, u.username as username, "
+            + "u.email as email, u.version as version, r.name as roleName from User u left join u.roles r ";
+
+    @Query(USER_ROWS + "order by u.id, r.id")
+    List<UserRow> findAllRows();
+
+    @Query(USER_ROWS + "where u.id in :ids order by u.id, r.id")
+    List<UserRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Paginación en dos fases: primero la página de ids (LIMIT/OFFSET en SQL)
+    // y luego los usuarios con sus roles; paginar un fetch join lo haría Hibernate en memoria.
+    // Sin ORDER BY el orden de LIMIT/OFFSET no está definido y una fila podría salir en dos páginas
+    @Query(value = "select u.id from User u order by u.id", countQuery = "select count(u) from User u")
+    Page<Long> findIdPage(Pageable pageable);
+
+    // Recorrido de toda la tabla para la exportación; el driver entrega las filas por bloques
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select u from User u order by u.id")
+    Stream<User> streamAll();
+
+    // Paginación por cursor (keyset): WHERE id > ? ORDER BY id LIMIT ?, sin OFFSET ni COUNT
+    @Query("select u.id from User u where u.id > :after order by u.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
+
+    // Solo id, username y email de todos los usuarios, para cargar el índice de prefijos
+    @Query("select new com.springboot.backend.brahian.usersapp.users_backend.models.UserSuggestion(u.id, u.username, u.email) "
+            + "from User u")
+    List<UserSuggestion> findAllSuggestions();
+
+    // Lectura para el login: solo usuario, hash y nombres de rol en una sola consulta
+    @Query("select u.username as username, u.password as password, r.name as roleName "
+            + "from User u left join u.roles r where u.username = :username")
+    List<UserCredentials> findCredentialsByUsername(@Param("username") String username);
+
+    // Ids de la lista que existen, para publicar solo los borrados reales
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Operaciones masivas: una sentencia por conjunto de ids en lugar de una por usuario.
+    // Hibernate borra primero las filas de users_roles de esos usuarios.
+    @Modifying(clearAutomatically = true)
+    @Query("delete from User u where u.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Los cambios de roles declaran users_roles como único espacio afectado: sin el hint, Hibernate
+    // vaciaría todas las regiones de la caché de segundo nivel (users, users-roles y roles) en cada
+    // sentencia nativa. Los usuarios afectados se desalojan uno a uno (UserServiceImpl.updateAdminRole).
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_roles"))
+    @Query(value = "insert into users_roles (user_id, role_id) "
+            + "select u.id, :roleId from users u where u.id in (:ids) "
+            + "and not exists (select 1 from users_roles ur where ur.user_id = u.id and ur.role_id = :roleId)",
+            nativeQuery = true)
+    int grantRole(@Param("ids") Collection<Long> ids, @Param("roleId") Long roleId);
+
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_roles"))
+    @Query(value = "delete from users_roles where role_id = :roleId and user_id in (:ids)", nativeQuery = true)
+    int revokeRole(@Param("ids") Collection<Long> ids, @Param("roleId") Long roleId);
+
+    // Los cambios de roles no pasan por la entidad: se incrementa la versión a mano, antes del
+    // cambio y con su misma condición, para que solo cambie el ETag de los usuarios que van a ganar
+    // o perder el rol. Son nativas con el mismo espacio que el cambio de roles porque un UPDATE HQL
+    // vaciaría la región users entera
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_roles"))
+    @Query(value = "update users set version = version + 1 where id in (:ids) "
+            + "and not exists (select 1 from users_roles ur where ur.user_id = users.id and ur.role_id = :roleId)",
+            nativeQuery = true)
+    int incrementVersionWithoutRole(@Param("ids") Collection<Long> ids, @Param("roleId") Long roleId);
+
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_roles"))
+    @Query(value = "update users set version = version + 1 where id in (:ids) "
+            + "and exists (select 1 from users_roles ur where ur.user_id = users.id and ur.role_id = :roleId)",
+            nativeQuery = true)
+    int incrementVersionWithRole(@Param("ids") Collection<Long> ids, @Param("roleId") Long roleId);
+
+    @Query("select u.id from User u where u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    // Re-hash del login: no cambia nada visible del usuario, así que no incrementa la versión (el ETag
+    // se mantiene). Declara un espacio propio que ninguna entidad usa para que Hibernate no vacíe la
+    // región users en cada login; el usuario se desaloja solo (UseDetailsService.updatePassword)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_password"))
+    @Query(value = "update users set password = :password where id = :id", nativeQuery = true)
+    int updatePasswordById(@Param("id") Long id, @Param("password") String password);
+
 }
@@ -0,0 +1,59 @@
+package com.springboot.backend.brahian.usersapp.users_backend.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserSearchRequest;
+
+/**
+ * Criterios de búsqueda de usuarios para UserRepository (JpaSpecificationExecutor).
+ *
+ * Los filtros de texto son por prefijo (LIKE 'abc%'), que los índices de la migración V4
+ * resuelven como un rango; un comodín al inicio obligaría a recorrer toda la tabla.
+ */
+public final class UserSpecifications {
+
+    private static final char ESCAPE = '\\';
+
+    private UserSpecifications() {
+    }
+
+    /**
+     * Combina con AND los filtros informados de la búsqueda; sin filtros equivale a todos los usuarios.
+     */
+    public static Specification<User> matching(UserSearchRequest search) {
+        List<Specification<User>> filters = new ArrayList<>();
+        addPrefix(filters, "username", search.getUsername());
+        addPrefix(filters, "email", search.getEmail());
+        addPrefix(filters, "name", search.getName());
+        addPrefix(filters, "lastname", search.getLastname());
+        return Specification.allOf(filters);
+    }
+
+    public static Specification<User> startsWith(String attribute, String prefix) {
+        String pattern = escape(prefix) + "%";
+        return (root, query, cb) -> cb.like(root.get(attribute), pattern, ESCAPE);
+    }
+
+    /**
+     * Condición del keyset: usuarios con id mayor que el último de la página anterior.
+     */
+    public static Specification<User> idGreaterThan(Long afterId) {
+        return (root, query, cb) -> afterId == null ? null : cb.greaterThan(root.get("id"), afterId);
+    }
+
+    private static void addPrefix(List<Specification<User>> filters, String attribute, String prefix) {
+        if (StringUtils.hasText(prefix)) {
+            filters.add(startsWith(attribute, prefix.trim()));
+        }
+    }
+
+    // Los comodines que escriba el usuario se buscan de forma literal
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,22 @@
+package com.springboot.backend.brahian.usersapp.users_backend.services;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Se lanza al crear o actualizar un usuario con un username o email que ya usa otro.
+ * El controlador la traduce a un 409 (Conflict) con el campo en conflicto.
+ */
+public class DuplicateUserException extends DataIntegrityViolationException {
+
+    /** Campo repetido: "username" o "email" */
+    private final String field;
+
+    public DuplicateUserException(String field, String message) {
+        super(message);
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+}
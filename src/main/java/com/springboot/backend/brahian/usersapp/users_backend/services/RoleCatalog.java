@@ -0,0 +1,167 @@
+package com.springboot.backend.brahian.usersapp.users_backend.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import com.springboot.backend.brahian.usersapp.users_backend.entities.Role;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.RoleRepository;
+
+/**
+ * Catálogo en memoria de la tabla roles.
+ *
+ * Los roles casi nunca cambian, pero setUserRoles los consultaba en cada alta y
+ * actualización de usuario (hasta dos SELECT por escritura). El catálogo carga todas
+ * las filas al arrancar en mapas inmutables nombre→Role e id→Role y los reemplaza de
+ * forma atómica al refrescarse (periódicamente o con invalidate()).
+ *
+ * Se entregan copias desacopladas con el id y el nombre: basta con el id para
+ * escribir la tabla users_roles, no generan consultas al serializar el usuario y
+ * nadie puede modificar la instancia compartida del catálogo.
+ *
+ * La recarga se protege con un ReentrantLock en lugar de synchronized: consulta la base
+ * de datos y, con hilos virtuales, un bloque synchronized fija el hilo a su portador
+ * mientras espera la respuesta.
+ *
+ * Un nombre que no está en el catálogo provoca como mucho una recarga cada
+ * roles.catalog.miss-reload-ms, y solo si nadie más está recargando: un rol inexistente no
+ * pone en cola todas las escrituras de usuarios detrás de un SELECT.
+ */
+@Component
+public class RoleCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(RoleCatalog.class);
+
+    /** Vista inmutable de la tabla roles */
+    private record Snapshot(Map<String, Role> byName, Map<Long, Role> byId) {
+    }
+
+    /** Catálogo sin cargar; se compara por identidad para distinguirlo de una tabla vacía */
+    private static final Snapshot UNLOADED = new Snapshot(Map.of(), Map.of());
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Value("${roles.catalog.miss-reload-ms:5000}")
+    private long missReloadMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Snapshot snapshot = UNLOADED;
+
+    /** Instante (ns) de la última recarga */
+    private volatile long loadedAt;
+
+    /**
+     * Busca un rol por nombre (ej: "ROLE_ADMIN") sin consultar la base de datos.
+     * Si el nombre no está en el catálogo se recarga, por si el rol se creó después,
+     * salvo que la última recarga sea reciente o haya otra en curso.
+     */
+    public Optional<Role> findByName(String name) {
+        Role role = current().byName().get(name);
+        if (role == null && reloadAfterMiss()) {
+            role = snapshot.byName().get(name);
+        }
+        return Optional.ofNullable(role).map(RoleCatalog::copyOf);
+    }
+
+    /**
+     * Busca un rol por id sin consultar la base de datos.
+     */
+    public Optional<Role> findById(Long id) {
+        return Optional.ofNullable(current().byId().get(id)).map(RoleCatalog::copyOf);
+    }
+
+    /**
+     * Descarta el catálogo actual; la próxima consulta lo vuelve a cargar.
+     */
+    public void invalidate() {
+        snapshot = UNLOADED;
+    }
+
+    /**
+     * Carga el catálogo al arrancar. Si la base de datos aún no está disponible
+     * se cargará en la primera consulta.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            refresh();
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("No se pudo cargar el catalogo de roles al iniciar: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Vuelve a leer la tabla roles y reemplaza el catálogo de forma atómica.
+     */
+    @Scheduled(fixedDelayString = "${roles.catalog.refresh-ms:600000}",
+            initialDelayString = "${roles.catalog.refresh-ms:600000}")
+    public void refresh() {
+        lock.lock();
+        try {
+            Map<String, Role> byName = new HashMap<>();
+            Map<Long, Role> byId = new HashMap<>();
+            for (Role role : roleRepository.findAll()) {
+                byName.put(role.getName(), role);
+                byId.put(role.getId(), role);
+            }
+            snapshot = new Snapshot(Map.copyOf(byName), Map.copyOf(byId));
+            loadedAt = System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Recarga tras un nombre desconocido sin esperar al lock.
+     * @return true si se recargó el catálogo
+     */
+    private boolean reloadAfterMiss() {
+        if (System.nanoTime() - loadedAt < TimeUnit.MILLISECONDS.toNanos(missReloadMillis) || !lock.tryLock()) {
+            return false;
+        }
+        try {
+            refresh();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == UNLOADED) {
+            lock.lock();
+            try {
+                if (snapshot == UNLOADED) {
+                    refresh();
+                }
+                current = snapshot;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private static Role copyOf(Role role) {
+        Role copy = new Role();
+        copy.setId(role.getId());
+        copy.setName(role.getName());
+        return copy;
+    }
+}
@@ -0,0 +1,12 @@
+package com.springboot.backend.brahian.usersapp.users_backend.services;
+
+/**
+ * Se lanza cuando una operación necesita un rol que no existe en la tabla roles
+ * (por ejemplo, ROLE_ADMIN en el cambio masivo de rol). El controlador la traduce a un 409.
+ */
+public class RoleNotFoundException extends RuntimeException {
+
+    public RoleNotFoundException(String name) {
+        super(String.format("El rol %s no existe", name));
+    }
+}
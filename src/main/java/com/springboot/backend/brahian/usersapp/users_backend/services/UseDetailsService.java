@@ -2,18 +2,23 @@ package com.springboot.backend.brahian.usersapp.users_backend.services;
 
 // Importaciones necesarias para Spring Security
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
 import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserRepository;
 import org.springframework.transaction.annotation.Transactional;
-import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserCredentials;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.Optional;
+import java.util.Objects;
+import jakarta.persistence.EntityManagerFactory;
 
 /**
  * Servicio que implementa UserDetailsService de Spring Security
@@ -23,14 +28,18 @@ import java.util.Optional;
  * - Cargar los detalles del usuario desde la base de datos
  * - Convertir los roles del usuario a autoridades de Spring Security
  * - Crear un objeto UserDetails para la autenticación
+ * - Guardar el nuevo hash cuando el coste de BCrypt configurado cambia (re-hash en el login)
  */
 @Service
-public class UseDetailsService implements UserDetailsService {
+public class UseDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     // Repositorio para acceder a los datos de usuarios en la base de datos
     @Autowired
     private UserRepository repository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     /**
      * Método principal que carga un usuario por su nombre de usuario
      * 
@@ -42,22 +51,21 @@ public class UseDetailsService implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        // Buscar el usuario en la base de datos por nombre de usuario
-        Optional<User> optionalUser = repository.findByUsername(username);
+        // Buscar usuario, hash y roles en una sola consulta (una fila por rol)
+        List<UserCredentials> rows = repository.findCredentialsByUsername(username);
 
         // Verificar si el usuario existe, si no, lanzar excepción
-        if (optionalUser.isEmpty()) {
+        if (rows.isEmpty()) {
             throw new UsernameNotFoundException(String.format("Username %s no existe en el sistema", username));
         }
 
-        // Obtener el usuario del Optional
-        User user = optionalUser.orElseThrow();
-
         // Convertir los roles del usuario a autoridades de Spring Security
         // Cada rol se convierte en un SimpleGrantedAuthority
-        List<GrantedAuthority> authorities = user.getRoles()
+        List<GrantedAuthority> authorities = rows
                 .stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName()))
+                .map(UserCredentials::getRoleName)
+                .filter(Objects::nonNull)
+                .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
 
         // Crear y retornar un objeto UserDetails de Spring Security
@@ -67,11 +75,37 @@ public class UseDetailsService implements UserDetailsService {
         // - credentialsNonExpired: credenciales no expiradas
         // - accountNonLocked: cuenta no bloqueada
         return new org.springframework.security.core.userdetails.User(username,
-                user.getPassword(),
+                rows.get(0).getPassword(),
                 true,  // enabled
                 true,  // accountNonExpired
                 true,  // credentialsNonExpired
                 true,  // accountNonLocked
                 authorities);
     }
+
+    /**
+     * Invocado por Spring Security tras un login correcto cuando el hash guardado
+     * tiene un coste distinto al configurado; guarda el hash regenerado.
+     * Al confirmar desaloja solo ese usuario de la caché de segundo nivel.
+     *
+     * @param user Usuario autenticado
+     * @param newPassword Nuevo hash de la contraseña
+     * @return UserDetails con el hash actualizado
+     */
+    @Transactional
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        repository.findIdByUsername(user.getUsername()).ifPresent(id -> {
+            repository.updatePasswordById(id, newPassword);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entityManagerFactory.getCache().evict(User.class, id);
+                }
+            });
+        });
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
 }
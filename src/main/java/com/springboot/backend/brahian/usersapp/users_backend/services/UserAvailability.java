@@ -0,0 +1,193 @@
+package com.springboot.backend.brahian.usersapp.users_backend.services;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserSuggestion;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Comprobación de si un username o email ya está en uso, con un filtro de Bloom delante
+ * de la base de datos.
+ *
+ * Si el filtro dice que el valor no existe, es seguro (no hay falsos negativos) y se responde
+ * sin consultar MySQL, que es el caso habitual del formulario de registro. Si dice que puede
+ * existir, se confirma con un exists sobre el índice único.
+ *
+ * Los filtros se construyen al arrancar, se alimentan con los UserChangedEvent de altas y
+ * actualizaciones y se reconstruyen cada users.availability.rebuild-ms para olvidar los valores
+ * de usuarios borrados o renombrados (que solo provocan falsos positivos, no errores).
+ *
+ * Cada instancia solo recibe los eventos de sus propias altas: con varias instancias, un usuario
+ * creado en otra puede darse por libre hasta la siguiente reconstrucción, como mucho
+ * users.availability.rebuild-ms (5 minutos por defecto). La respuesta de disponibilidad es
+ * orientativa; el índice único de la base de datos sigue rechazando el alta (409).
+ *
+ * Los valores se guardan con key(), que ignora mayúsculas y acentos como la colación de MySQL.
+ */
+@Component
+public class UserAvailability implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAvailability.class);
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    /** Filtros de usernames y emails que se reemplazan juntos */
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+
+        void put(String username, String email) {
+            if (username != null) {
+                usernames.put(key(username));
+            }
+            if (email != null) {
+                emails.put(key(email));
+            }
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${users.availability.expected-users:1000000}")
+    private long expectedUsers;
+
+    @Value("${users.availability.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    /** Filtros en uso; null hasta la primera carga (se consulta siempre la base de datos) */
+    private volatile Filters filters;
+
+    /** Filtros en construcción: reciben también los cambios que llegan durante la carga */
+    private volatile Filters building;
+
+    private final AtomicLong filtered = new AtomicLong();
+    private final AtomicLong confirmed = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    /**
+     * @param excludeId Id del usuario que se está actualizando (su propio username no cuenta), o null
+     */
+    public boolean isUsernameTaken(String username, Long excludeId) {
+        Filters current = filters;
+        if (current != null && !current.usernames().mightContain(key(username))) {
+            filtered.incrementAndGet();
+            return false;
+        }
+        return confirm(current != null, excludeId == null
+                ? userRepository.existsByUsername(username)
+                : userRepository.existsByUsernameAndIdNot(username, excludeId));
+    }
+
+    /**
+     * @param excludeId Id del usuario que se está actualizando (su propio email no cuenta), o null
+     */
+    public boolean isEmailTaken(String email, Long excludeId) {
+        Filters current = filters;
+        if (current != null && !current.emails().mightContain(key(email))) {
+            filtered.incrementAndGet();
+            return false;
+        }
+        return confirm(current != null, excludeId == null
+                ? userRepository.existsByEmail(email)
+                : userRepository.existsByEmailAndIdNot(email, excludeId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            rebuild();
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("No se pudieron cargar los filtros de disponibilidad: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Construye filtros nuevos con los usuarios actuales y los reemplaza de forma atómica.
+     */
+    @Scheduled(fixedDelayString = "${users.availability.rebuild-ms:300000}",
+            initialDelayString = "${users.availability.rebuild-ms:300000}")
+    public void rebuild() {
+        Filters next = new Filters(new BloomFilter(expectedUsers, falsePositiveRate),
+                new BloomFilter(expectedUsers, falsePositiveRate));
+        building = next;
+        try {
+            List<UserSuggestion> users = userRepository.findAllSuggestions();
+            users.forEach(user -> next.put(user.username(), user.email()));
+            filters = next;
+            log.info("Filtros de disponibilidad cargados con {} usuarios ({} bits, {} hashes)",
+                    users.size(), next.usernames().bitCount(), next.usernames().hashCount());
+        } finally {
+            building = null;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() != UserChangedEvent.Type.SAVED) {
+            return;
+        }
+        Filters current = filters;
+        if (current != null) {
+            current.put(event.username(), event.email());
+        }
+        Filters next = building;
+        if (next != null) {
+            next.put(event.username(), event.email());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("users.availability.checks", filtered, AtomicLong::get)
+                .description("Comprobaciones de username o email en uso")
+                .tag("result", "filtered")
+                .register(registry);
+        FunctionCounter.builder("users.availability.checks", confirmed, AtomicLong::get)
+                .description("Comprobaciones de username o email en uso")
+                .tag("result", "taken")
+                .register(registry);
+        FunctionCounter.builder("users.availability.checks", falsePositives, AtomicLong::get)
+                .description("Comprobaciones de username o email en uso")
+                .tag("result", "false_positive")
+                .register(registry);
+    }
+
+    private boolean confirm(boolean filterUsed, boolean taken) {
+        if (taken) {
+            confirmed.incrementAndGet();
+        } else if (filterUsed) {
+            falsePositives.incrementAndGet();
+        }
+        return taken;
+    }
+
+    /**
+     * Clave de comparación de usernames y emails. La colación de MySQL (utf8mb4_0900_ai_ci) no
+     * distingue mayúsculas ni acentos, así que se descompone el texto (NFKD), se quitan las marcas
+     * diacríticas y se pasa a minúsculas. Normalizar de más solo produce coincidencias que luego
+     * se confirman en la base de datos; normalizar de menos daría por libres valores en uso.
+     */
+    static String key(String value) {
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFKD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
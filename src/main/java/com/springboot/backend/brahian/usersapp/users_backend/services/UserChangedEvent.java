@@ -0,0 +1,21 @@
+package com.springboot.backend.brahian.usersapp.users_backend.services;
+
+/**
+ * Evento publicado por UserServiceImpl y UserImportService cuando se crea, actualiza o borra
+ * un usuario. Los oyentes lo reciben tras el commit (ver UserPrefixIndex).
+ *
+ * @param username Username tras el cambio (null en DELETED)
+ * @param email Email tras el cambio (null en DELETED)
+ */
+public record UserChangedEvent(Type type, Long id, String username, String email) {
+
+    public enum Type { SAVED, DELETED }
+
+    public static UserChangedEvent saved(Long id, String username, String email) {
+        return new UserChangedEvent(Type.SAVED, id, username, email);
+    }
+
+    public static UserChangedEvent deleted(Long id) {
+        return new UserChangedEvent(Type.DELETED, id, null, null);
+    }
+}
@@ -0,0 +1,271 @@
+package com.springboot.backend.brahian.usersapp.users_backend.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.PasswordHashingBusyException;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.PooledPasswordEncoder;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.Role;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserImportResult;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserImportResult.Status;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Importación masiva de usuarios.
+ *
+ * Las filas se procesan por bloques de users.import.batch-size:
+ * 1. Se validan con las mismas reglas que POST /api/users, incluida la unicidad de username
+ *    y email (UserAvailability y las filas anteriores de la misma importación): un duplicado
+ *    queda como INVALID en lugar de deshacer todo su bloque
+ * 2. Las contraseñas del bloque se hashean en paralelo en el pool de BCrypt,
+ *    fuera de cualquier transacción
+ * 3. El bloque se inserta en una transacción; Hibernate agrupa los INSERT de users
+ *    y users_roles en lotes JDBC (hibernate.jdbc.batch_size)
+ *
+ * Si el bloque falla, sus filas se reintentan una a una para informar qué fila
+ * provocó el error sin perder las demás. El informe lleva mensajes fijos; el detalle
+ * del error de la base de datos solo va al log.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    @Autowired
+    private PooledPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RoleCatalog roleCatalog;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private UserAvailability availability;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${users.import.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Importa los usuarios recibidos y devuelve el resultado de cada fila.
+     *
+     * @param users Usuarios a crear, leídos de forma incremental (arreglo JSON o NDJSON). Si al leer
+     *              una fila lanza RuntimeJsonMappingException, la fila queda como INVALID y se sigue
+     *              con la siguiente
+     * @return Resultado por fila, en el mismo orden de entrada
+     */
+    public List<UserImportResult> importUsers(Iterator<User> users) {
+        List<UserImportResult> results = new ArrayList<>();
+        List<User> batch = new ArrayList<>(batchSize);
+        List<UserImportResult> batchResults = new ArrayList<>(batchSize);
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        int index = 0;
+
+        while (users.hasNext()) {
+            User user;
+            try {
+                user = users.next();
+            } catch (RuntimeJsonMappingException e) {
+                UserImportResult result = new UserImportResult(index++, null);
+                result.setStatus(Status.INVALID);
+                result.setErrors(Collections.singletonMap("json", "La fila no es un usuario en JSON valido"));
+                results.add(result);
+                continue;
+            }
+            UserImportResult result = new UserImportResult(index++, user.getUsername());
+            results.add(result);
+
+            Map<String, String> errors = validate(user, usernames, emails);
+            if (!errors.isEmpty()) {
+                result.setStatus(Status.INVALID);
+                result.setErrors(errors);
+                continue;
+            }
+            batch.add(user);
+            batchResults.add(result);
+            if (batch.size() == batchSize) {
+                importBatch(batch, batchResults);
+            }
+        }
+        importBatch(batch, batchResults);
+        return results;
+    }
+
+    private void importBatch(List<User> batch, List<UserImportResult> batchResults) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        hashPasswords(batch, batchResults);
+
+        List<User> ready = new ArrayList<>(batch.size());
+        List<UserImportResult> readyResults = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (batchResults.get(i).getStatus() == null) {
+                ready.add(batch.get(i));
+                readyResults.add(batchResults.get(i));
+            }
+        }
+
+        try {
+            persist(ready);
+            markCreated(ready, readyResults);
+        } catch (RuntimeException batchError) {
+            // Se reintenta fila a fila para aislar la que falló
+            for (int i = 0; i < ready.size(); i++) {
+                User user = ready.get(i);
+                user.setId(null);
+                try {
+                    persist(List.of(user));
+                    markCreated(List.of(user), List.of(readyResults.get(i)));
+                } catch (RuntimeException rowError) {
+                    log.warn("No se pudo importar el usuario {}", user.getUsername(), rowError);
+                    readyResults.get(i).setStatus(Status.FAILED);
+                    readyResults.get(i).setErrors(Collections.singletonMap("error", isIntegrityViolation(rowError)
+                            ? "El username o el email ya estan en uso"
+                            : "No se pudo guardar el usuario"));
+                }
+            }
+        }
+        batch.clear();
+        batchResults.clear();
+    }
+
+    /**
+     * Hashea en paralelo las contraseñas del bloque. Si la cola del pool se llena,
+     * espera a que terminen los hashes ya enviados y vuelve a intentarlo una vez.
+     */
+    private void hashPasswords(List<User> batch, List<UserImportResult> batchResults) {
+        List<CompletableFuture<String>> hashes = new ArrayList<>(batch.size());
+        for (User user : batch) {
+            CompletableFuture<String> hash;
+            try {
+                hash = passwordEncoder.encodeAsync(user.getPassword());
+            } catch (PasswordHashingBusyException busy) {
+                hashes.forEach(pending -> pending.exceptionally(e -> null).join());
+                try {
+                    hash = passwordEncoder.encodeAsync(user.getPassword());
+                } catch (PasswordHashingBusyException stillBusy) {
+                    hash = CompletableFuture.failedFuture(stillBusy);
+                }
+            }
+            hashes.add(hash);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                batch.get(i).setPassword(hashes.get(i).join());
+            } catch (CompletionException e) {
+                batchResults.get(i).setStatus(Status.FAILED);
+                batchResults.get(i).setErrors(Collections.singletonMap("error", e.getCause() instanceof PasswordHashingBusyException
+                        ? "Demasiadas operaciones de contraseña en curso, intente mas tarde"
+                        : "No se pudo procesar la contraseña"));
+            }
+        }
+    }
+
+    private void persist(List<User> users) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (User user : users) {
+                user.setRoles(roles(user));
+                entityManager.persist(user);
+                eventPublisher.publishEvent(UserChangedEvent.saved(user.getId(), user.getUsername(), user.getEmail()));
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private List<Role> roles(User user) {
+        List<Role> roles = new ArrayList<>();
+        roleCatalog.findByName("ROLE_USER").ifPresent(roles::add);
+        if (user.isAdmin()) {
+            roleCatalog.findByName("ROLE_ADMIN").ifPresent(roles::add);
+        }
+        return roles;
+    }
+
+    /**
+     * @param usernames Usernames (UserAvailability.key) de las filas válidas anteriores de la importación
+     * @param emails Emails (UserAvailability.key) de las filas válidas anteriores de la importación
+     */
+    private Map<String, String> validate(User user, Set<String> usernames, Set<String> emails) {
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<User> violation : violations) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        if (!errors.isEmpty()) {
+            return errors;
+        }
+        String username = UserAvailability.key(user.getUsername());
+        String email = UserAvailability.key(user.getEmail());
+        if (usernames.contains(username) || availability.isUsernameTaken(user.getUsername(), null)) {
+            errors.put("username", String.format("El username %s ya esta en uso", user.getUsername()));
+        }
+        if (emails.contains(email) || availability.isEmailTaken(user.getEmail(), null)) {
+            errors.put("email", String.format("El email %s ya esta en uso", user.getEmail()));
+        }
+        if (errors.isEmpty()) {
+            usernames.add(username);
+            emails.add(email);
+        }
+        return errors;
+    }
+
+    private static void markCreated(List<User> users, List<UserImportResult> results) {
+        for (int i = 0; i < users.size(); i++) {
+            results.get(i).setStatus(Status.CREATED);
+            results.get(i).setId(users.get(i).getId());
+        }
+    }
+
+    /**
+     * Índice único o clave foránea violados, con la excepción de Hibernate sin traducir
+     * (EntityManager fuera de un @Repository) o ya traducida por Spring.
+     */
+    private static boolean isIntegrityViolation(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException
+                    || cause instanceof ConstraintViolationException
+                    || cause instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
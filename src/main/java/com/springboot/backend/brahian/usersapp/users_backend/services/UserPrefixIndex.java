@@ -0,0 +1,210 @@
+package com.springboot.backend.brahian.usersapp.users_backend.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserSuggestion;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserRepository;
+
+/**
+ * Índice en memoria de usernames y emails para el autocompletado (GET /api/users/search/suggest).
+ *
+ * Dos mapas ordenados concurrentes (ConcurrentSkipListMap) con clave "valor en minúsculas + \0 + id":
+ * las sugerencias de un prefijo son el subMap [prefijo, prefijo + Character.MAX_VALUE), sin consultar la base
+ * de datos. Se carga al arrancar y se mantiene con los UserChangedEvent que publican las altas,
+ * actualizaciones y borrados una vez confirmada la transacción.
+ *
+ * Los eventos solo llegan de este nodo: con varias instancias los cambios hechos en las demás no se ven,
+ * así que el índice se reconstruye cada users.prefix-index.rebuild-ms en uno nuevo que reemplaza al
+ * actual de forma atómica, igual que los filtros de UserAvailability.
+ *
+ * Se desactiva con users.prefix-index.enabled=false; mientras no está cargado las sugerencias
+ * se resuelven con la búsqueda por prefijo en la base de datos.
+ */
+@Component
+public class UserPrefixIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserPrefixIndex.class);
+
+    private static final char SEPARATOR = '\0';
+
+    /** Mapas de un índice; se reemplazan juntos */
+    private static final class Index {
+
+        private final NavigableMap<String, Long> usernames = new ConcurrentSkipListMap<>();
+        private final NavigableMap<String, Long> emails = new ConcurrentSkipListMap<>();
+        private final Map<Long, UserSuggestion> byId = new ConcurrentHashMap<>();
+
+        /** Ids borrados mientras se construye el índice, para no recuperarlos de filas ya leídas */
+        private final Set<Long> deleted = ConcurrentHashMap.newKeySet();
+
+        /** Los eventos que llegan durante la carga prevalecen sobre las filas leídas, que pueden ser más antiguas */
+        void load(UserSuggestion user) {
+            if (!deleted.contains(user.id()) && byId.putIfAbsent(user.id(), user) == null) {
+                addKeys(user);
+            }
+        }
+
+        void apply(UserChangedEvent event) {
+            UserSuggestion previous;
+            if (event.type() == UserChangedEvent.Type.DELETED) {
+                deleted.add(event.id());
+                previous = byId.remove(event.id());
+            } else {
+                previous = byId.put(event.id(), new UserSuggestion(event.id(), event.username(), event.email()));
+            }
+            if (previous != null) {
+                usernames.remove(key(previous.username(), previous.id()));
+                emails.remove(key(previous.email(), previous.id()));
+            }
+            if (event.type() == UserChangedEvent.Type.SAVED) {
+                addKeys(byId.get(event.id()));
+            }
+        }
+
+        private void addKeys(UserSuggestion user) {
+            if (user == null) {
+                return;
+            }
+            if (user.username() != null) {
+                usernames.put(key(user.username(), user.id()), user.id());
+            }
+            if (user.email() != null) {
+                emails.put(key(user.email(), user.id()), user.id());
+            }
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${users.prefix-index.enabled:true}")
+    private boolean enabled;
+
+    /** Índice en uso; null hasta la primera carga (se consulta la base de datos) */
+    private volatile Index index;
+
+    /** Índice en construcción: recibe también los cambios que llegan durante la carga */
+    private volatile Index building;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("No se pudo cargar el indice de prefijos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Construye un índice nuevo con los usuarios actuales y lo reemplaza de forma atómica;
+     * mientras tanto las sugerencias siguen saliendo del índice anterior.
+     */
+    @Scheduled(fixedDelayString = "${users.prefix-index.rebuild-ms:3600000}",
+            initialDelayString = "${users.prefix-index.rebuild-ms:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        Index next = new Index();
+        building = next;
+        try {
+            List<UserSuggestion> users = userRepository.findAllSuggestions();
+            users.forEach(next::load);
+            next.deleted.clear();
+            index = next;
+            log.info("Indice de prefijos cargado con {} usuarios", users.size());
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Aplica un cambio confirmado. Sin transacción activa (fallbackExecution) se aplica en el acto.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Index current = index;
+        if (current != null) {
+            current.apply(event);
+        }
+        Index next = building;
+        if (next != null) {
+            next.apply(event);
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && index != null;
+    }
+
+    /**
+     * Usuarios cuyo username o email empieza por el prefijo (sin distinguir mayúsculas);
+     * primero las coincidencias de username, en orden alfabético.
+     */
+    public List<UserSuggestion> suggest(String prefix, int limit) {
+        Index current = index;
+        if (current == null) {
+            return List.of();
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        collect(current.usernames, prefix, limit, ids);
+        collect(current.emails, prefix, limit, ids);
+        List<UserSuggestion> suggestions = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            UserSuggestion user = current.byId.get(id);
+            if (user != null) {
+                suggestions.add(user);
+            }
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        Index current = index;
+        return current == null ? 0 : current.byId.size();
+    }
+
+    private static void collect(NavigableMap<String, Long> map, String prefix, int limit, Set<Long> ids) {
+        String from = normalize(prefix);
+        for (Long id : map.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+            if (ids.size() >= limit) {
+                return;
+            }
+            ids.add(id);
+        }
+    }
+
+    private static String key(String value, Long id) {
+        return value == null ? "" : normalize(value) + SEPARATOR + id;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
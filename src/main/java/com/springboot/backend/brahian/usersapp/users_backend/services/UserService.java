@@ -1,23 +1,38 @@
 package com.springboot.backend.brahian.usersapp.users_backend.services;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
 import com.springboot.backend.brahian.usersapp.users_backend.models.UserRequest;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserSearchRequest;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserSuggestion;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserView;
 
 @Service
 public interface UserService {
 
-    List<User> getAllUsers();
-    Page<User> getAllUsers(Pageable pageable);
+    List<UserView> getAllUsers();
+    Page<UserView> getAllUsers(Pageable pageable);
+    Slice<UserView> getUsersAfter(Long afterId, int size);
+    Slice<UserView> searchUsers(UserSearchRequest search, Long afterId, int size);
+    List<UserSuggestion> suggestUsers(String prefix, int size);
+    void streamAllUsers(Consumer<User> consumer);
     Optional<User> getUserById(Long id);
     User createUser(User user);
     Optional<User> updateUser(UserRequest userRequest, Long id);
+    Optional<User> updateUser(UserRequest userRequest, Long id, Long expectedVersion);
     void deleteById(Long id);
+    int deleteAllById(Collection<Long> ids);
+    int updateAdminRole(Collection<Long> ids, boolean admin);
+    boolean isUsernameAvailable(String username);
+    boolean isEmailAvailable(String email);
 
 }
@@ -1,25 +1,56 @@
 package com.springboot.backend.brahian.usersapp.users_backend.services;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.hibernate.Hibernate;
+
+import io.micrometer.core.annotation.Timed;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import com.springboot.backend.brahian.usersapp.users_backend.entities.Role;
 import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
 import com.springboot.backend.brahian.usersapp.users_backend.models.IUser;
 import com.springboot.backend.brahian.usersapp.users_backend.models.UserRequest;
-import com.springboot.backend.brahian.usersapp.users_backend.repositories.RoleRepository;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserSearchRequest;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserSuggestion;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserView;
 import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserSpecifications;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 
 
+// Un timer por método (users.service, etiquetas class y method) con percentiles p50/p95/p99
+@Timed(value = "users.service", percentiles = { 0.5, 0.95, 0.99 })
 @Service
 public class UserServiceImpl implements UserService {
 
@@ -27,21 +58,134 @@ public class UserServiceImpl implements UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private RoleCatalog roleCatalog;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserPrefixIndex prefixIndex;
+
+    @Autowired
+    private UserAvailability availability;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${users.export.batch-size:100}")
+    private int exportBatchSize;
+
+    /**
+     * Todos los usuarios con los nombres de sus roles en una sola consulta de proyección,
+     * sin cargar entidades en el contexto de persistencia.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserView> getAllUsers() {
+        return UserView.fromRows(userRepository.findAllRows());
+    }
+
+    /**
+     * Página de usuarios con sus roles en dos consultas (más el count), sin importar
+     * el tamaño de la página: ids de la página y después las filas de esos usuarios.
+     */
     @Override
     @Transactional(readOnly = true)
-    public List<User> getAllUsers() {
-        return (List<User>) userRepository.findAll();
+    public Page<UserView> getAllUsers(Pageable pageable) {
+        Page<Long> ids = userRepository.findIdPage(pageable);
+        return new PageImpl<>(findViewsInOrder(ids.getContent()), pageable, ids.getTotalElements());
     }
 
+    /**
+     * Bloque de usuarios con id mayor que afterId, ordenados por id.
+     * Se pide un elemento de más para saber si hay siguiente bloque sin hacer COUNT.
+     */
     @Override
     @Transactional(readOnly = true)
-    public Page<User> getAllUsers(Pageable pageable) {
-        return userRepository.findAll(pageable);
+    public Slice<UserView> getUsersAfter(Long afterId, int size) {
+        List<Long> ids = userRepository.findIdsAfter(afterId == null ? 0L : afterId, Limit.of(size + 1));
+        boolean hasNext = ids.size() > size;
+        if (hasNext) {
+            ids = ids.subList(0, size);
+        }
+        return new SliceImpl<>(findViewsInOrder(ids), PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * Búsqueda por prefijo en username, email, name y lastname, paginada por keyset sobre el id:
+     * WHERE ... AND id > afterId ORDER BY id LIMIT size + 1. Los roles del bloque se cargan
+     * en lote con una sola consulta (hibernate.default_batch_fetch_size).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<UserView> searchUsers(UserSearchRequest search, Long afterId, int size) {
+        Specification<User> spec = UserSpecifications.matching(search)
+                .and(UserSpecifications.idGreaterThan(afterId));
+        List<User> users = userRepository.findBy(spec, query -> query.sortBy(Sort.by("id")).limit(size + 1).all());
+        boolean hasNext = users.size() > size;
+        if (hasNext) {
+            users = users.subList(0, size);
+        }
+        users.forEach(user -> Hibernate.initialize(user.getRoles()));
+        return new SliceImpl<>(users.stream().map(UserView::from).toList(), PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * Autocompletado por prefijo de username o email desde el índice en memoria; si aún
+     * no está cargado (o está desactivado) se consulta la base de datos.
+     * Sin @Transactional: con el índice cargado no se abre transacción ni se pide conexión.
+     */
+    @Override
+    public List<UserSuggestion> suggestUsers(String prefix, int size) {
+        if (prefixIndex.isReady()) {
+            return prefixIndex.suggest(prefix, size);
+        }
+        Specification<User> spec = UserSpecifications.startsWith("username", prefix.trim())
+                .or(UserSpecifications.startsWith("email", prefix.trim()));
+        return userRepository.findBy(spec, query -> query.sortBy(Sort.by("username")).limit(size).all())
+                .stream()
+                .map(user -> new UserSuggestion(user.getId(), user.getUsername(), user.getEmail()))
+                .toList();
+    }
+
+    /**
+     * Recorre todos los usuarios sin cargarlos a la vez en memoria.
+     * Por cada bloque se cargan los roles en lote (hibernate.default_batch_fetch_size),
+     * se entregan al consumidor y se vacía el contexto de persistencia, de modo que
+     * la memoria usada no depende del tamaño de la tabla.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<User> consumer) {
+        List<User> batch = new ArrayList<>(exportBatchSize);
+        try (Stream<User> users = userRepository.streamAll()) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == exportBatchSize) {
+                    emitBatch(batch, consumer);
+                }
+            }
+            emitBatch(batch, consumer);
+        }
+    }
+
+    private void emitBatch(List<User> batch, Consumer<User> consumer) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Los roles que no estén en la caché de segundo nivel se cargan en lote:
+        // el primer fallo dispara una sola consulta para todas las colecciones del bloque
+        batch.forEach(user -> Hibernate.initialize(user.getRoles()));
+        batch.forEach(consumer);
+        batch.clear();
+        entityManager.clear();
     }
 
     @Override
@@ -50,28 +194,58 @@ public class UserServiceImpl implements UserService {
         return userRepository.findById(id);
     }
 
+    /**
+     * El hash BCrypt se calcula antes de abrir la transacción para no retener
+     * una conexión de la base de datos mientras dura (decenas de milisegundos).
+     * Los duplicados se rechazan antes del hash, sin pasar por una transacción fallida.
+     * @throws DuplicateUserException si el username o el email ya están en uso
+     */
     @Override
-    @Transactional
     public User createUser(User user) {
-        List<Role> roles = setUserRoles(user);
-        user.setRoles(roles);
+        checkUnique(user.getUsername(), user.getEmail(), null);
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        return transactionTemplate.execute(status -> {
+            List<Role> roles = setUserRoles(user);
+            user.setRoles(roles);
+            User saved = userRepository.save(user);
+            eventPublisher.publishEvent(UserChangedEvent.saved(saved.getId(), saved.getUsername(), saved.getEmail()));
+            return saved;
+        });
     }
 
     @Override
     @Transactional
     public Optional<User> updateUser(UserRequest userRequest, Long id) {
+        return updateUser(userRequest, id, null);
+    }
+
+    /**
+     * Actualiza el usuario solo si su versión coincide con la esperada (If-Match).
+     * @throws OptimisticLockingFailureException si el usuario cambió desde que el cliente lo leyó
+     * @throws DuplicateUserException si el nuevo username o email ya los usa otro usuario
+     */
+    @Override
+    @Transactional
+    public Optional<User> updateUser(UserRequest userRequest, Long id, Long expectedVersion) {
         Optional<User> existingUser = getUserById(id);
         if (existingUser.isPresent()) {
             User userToUpdate = existingUser.get();
+            if (expectedVersion != null && !expectedVersion.equals(userToUpdate.getVersion())) {
+                throw new OptimisticLockingFailureException(
+                        String.format("El usuario %d fue modificado (version %d)", id, userToUpdate.getVersion()));
+            }
+            // Solo se comprueban los valores que cambian
+            checkUnique(userRequest.getUsername().equalsIgnoreCase(userToUpdate.getUsername()) ? null : userRequest.getUsername(),
+                    userRequest.getEmail().equalsIgnoreCase(userToUpdate.getEmail()) ? null : userRequest.getEmail(), id);
             userToUpdate.setName(userRequest.getName());
             userToUpdate.setLastname(userRequest.getLastname());
             userToUpdate.setUsername(userRequest.getUsername());
             userToUpdate.setEmail(userRequest.getEmail());  
             List<Role> roles = setUserRoles(userRequest);
             userToUpdate.setRoles(roles);
-            return Optional.of(userRepository.save(userToUpdate));
+            User saved = userRepository.save(userToUpdate);
+            eventPublisher.publishEvent(UserChangedEvent.saved(saved.getId(), saved.getUsername(), saved.getEmail()));
+            return Optional.of(saved);
         }
         return Optional.empty();
     }
@@ -80,14 +254,112 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public void deleteById(Long id) {
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(id));
+    }
+
+    @Override
+    @Transactional
+    public int deleteAllById(Collection<Long> ids) {
+        // Solo se publican eventos de los usuarios que existían
+        List<Long> existing = userRepository.findIdsByIdIn(ids);
+        if (existing.isEmpty()) {
+            return 0;
+        }
+        int deleted = userRepository.deleteAllByIdIn(existing);
+        existing.forEach(id -> eventPublisher.publishEvent(UserChangedEvent.deleted(id)));
+        return deleted;
+    }
+
+    /**
+     * Concede o retira ROLE_ADMIN a todos los usuarios indicados con una sola sentencia.
+     * Antes se incrementa la versión solo de los que van a cambiar (los que ya tenían o no tenían
+     * el rol conservan su ETag); si no cambia ninguno no se toca users_roles.
+     * Tras el commit desaloja de la caché de segundo nivel solo esos usuarios y sus roles.
+     * @return Número de filas de users_roles afectadas
+     * @throws RoleNotFoundException si ROLE_ADMIN no existe
+     */
+    @Override
+    @Transactional
+    public int updateAdminRole(Collection<Long> ids, boolean admin) {
+        Long adminRoleId = roleCatalog.findByName("ROLE_ADMIN")
+                .orElseThrow(() -> new RoleNotFoundException("ROLE_ADMIN")).getId();
+        int changing = admin
+                ? userRepository.incrementVersionWithoutRole(ids, adminRoleId)
+                : userRepository.incrementVersionWithRole(ids, adminRoleId);
+        if (changing == 0) {
+            return 0;
+        }
+        int updated = admin
+                ? userRepository.grantRole(ids, adminRoleId)
+                : userRepository.revokeRole(ids, adminRoleId);
+        evictAfterCommit(ids);
+        return updated;
+    }
+
+    @Override
+    public boolean isUsernameAvailable(String username) {
+        return !availability.isUsernameTaken(username, null);
+    }
+
+    @Override
+    public boolean isEmailAvailable(String email) {
+        return !availability.isEmailTaken(email, null);
+    }
+
+    /**
+     * Desaloja los usuarios y sus colecciones de roles de la caché de segundo nivel al confirmar
+     * la transacción; antes, otra transacción podría volver a cachear las filas aún sin cambios.
+     */
+    private void evictAfterCommit(Collection<Long> ids) {
+        List<Long> evicted = List.copyOf(ids);
+        org.hibernate.Cache cache = entityManager.getEntityManagerFactory().getCache().unwrap(org.hibernate.Cache.class);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Long id : evicted) {
+                    cache.evictEntityData(User.class, id);
+                    cache.evictCollectionData(User.class.getName() + ".roles", id);
+                }
+            }
+        });
+    }
+
+    private void checkUnique(String username, String email, Long excludeId) {
+        if (username != null && availability.isUsernameTaken(username, excludeId)) {
+            throw new DuplicateUserException("username", String.format("El username %s ya esta en uso", username));
+        }
+        if (email != null && availability.isEmailTaken(email, excludeId)) {
+            throw new DuplicateUserException("email", String.format("El email %s ya esta en uso", email));
+        }
+    }
+
+    /**
+     * Carga las vistas de los usuarios respetando el orden de la lista de ids.
+     */
+    private List<UserView> findViewsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, UserView> byId = new HashMap<>();
+        for (UserView view : UserView.fromRows(userRepository.findRowsByIdIn(ids))) {
+            byId.put(view.id(), view);
+        }
+        List<UserView> views = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            UserView view = byId.get(id);
+            if (view != null) {
+                views.add(view);
+            }
+        }
+        return views;
     }
 
     private List<Role> setUserRoles(IUser user) {
         List<Role> roles = new ArrayList<>();
-        Optional<Role> optionalRole = roleRepository.findByName("ROLE_USER");
+        Optional<Role> optionalRole = roleCatalog.findByName("ROLE_USER");
         optionalRole.ifPresent(roles::add);
         if (user.isAdmin()) {
-            Optional<Role> optionalAdminRole = roleRepository.findByName("ROLE_ADMIN");
+            Optional<Role> optionalAdminRole = roleCatalog.findByName("ROLE_ADMIN");
             optionalAdminRole.ifPresent(roles::add);
         }
         return roles;
@@ -0,0 +1,5 @@
+-- Índice para la búsqueda por username del login (UseDetailsService). Es único: las altas y
+-- actualizaciones validan el username antes (409) y el índice garantiza la unicidad cuando dos
+-- peticiones concurrentes pasan la validación a la vez. Si ya hay duplicados la migración falla
+-- y hay que resolverlos antes.
+CREATE UNIQUE INDEX uk_users_username ON users (username);
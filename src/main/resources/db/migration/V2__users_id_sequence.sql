@@ -0,0 +1,4 @@
+-- Secuencia emulada para users.id (GenerationType.SEQUENCE con allocationSize = 50).
+-- Empieza por encima del id más alto para no chocar con las filas existentes.
+CREATE TABLE users_seq (next_val BIGINT);
+INSERT INTO users_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM users;
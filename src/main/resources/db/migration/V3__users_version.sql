@@ -0,0 +1,2 @@
+-- Columna de versión para bloqueo optimista y ETag de /api/users
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- Índices para la búsqueda por prefijo de /api/users/search (LIKE 'abc%' se resuelve como rango).
+-- En InnoDB cada índice secundario incluye la clave primaria, así que (email) se comporta
+-- como (email, id): el filtro id > cursor del keyset se evalúa sobre el propio índice.
+-- username ya tiene índice (V1); lastname va primero porque la búsqueda por apellido es la habitual
+-- y el índice también sirve para apellido + nombre.
+-- El de email es único por el mismo motivo que el de username (V1).
+CREATE UNIQUE INDEX uk_users_email ON users (email);
+CREATE INDEX idx_users_name ON users (name);
+CREATE INDEX idx_users_lastname_name ON users (lastname, name);
@@ -0,0 +1,19 @@
+package com.springboot.backend.brahian.usersapp.users_backend;
+
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Arranca la aplicación con el perfil loadtest: base H2 embebida en modo MySQL, sembrada
+ * con usuarios y roles (ver load.LoadTestDataSeeder), sin necesitar MySQL en localhost.
+ *
+ * mvn spring-boot:test-run -Dspring-boot.run.main-class=com.springboot.backend.brahian.usersapp.users_backend.TestUsersBackendApplication
+ */
+public class TestUsersBackendApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.from(UsersBackendApplication::main)
+				.withAdditionalProfiles("loadtest")
+				.run(args);
+	}
+
+}
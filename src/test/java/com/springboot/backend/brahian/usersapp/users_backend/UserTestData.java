@@ -0,0 +1,93 @@
+package com.springboot.backend.brahian.usersapp.users_backend;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.springboot.backend.brahian.usersapp.users_backend.entities.Role;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.RoleRepository;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.brahian.usersapp.users_backend.services.RoleCatalog;
+import com.springboot.backend.brahian.usersapp.users_backend.services.UserAvailability;
+import com.springboot.backend.brahian.usersapp.users_backend.services.UserPrefixIndex;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Datos de prueba compartidos por los @SpringBootTest (se añade con @Import).
+ *
+ * Todos los contextos usan la misma base H2 en memoria, así que cada prueba empieza con
+ * reset(): tablas vacías salvo ROLE_USER y ROLE_ADMIN, caché de segundo nivel vacía y
+ * catálogo de roles, índice de prefijos y filtros de disponibilidad recargados.
+ */
+@TestComponent
+public class UserTestData {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private RoleCatalog roleCatalog;
+
+    @Autowired
+    private UserPrefixIndex prefixIndex;
+
+    @Autowired
+    private UserAvailability availability;
+
+    public void reset() {
+        jdbcTemplate.update("delete from users_roles");
+        jdbcTemplate.update("delete from users");
+        jdbcTemplate.update("delete from roles");
+        entityManagerFactory.getCache().evictAll();
+        for (String name : List.of("ROLE_USER", "ROLE_ADMIN")) {
+            Role role = new Role();
+            role.setName(name);
+            roleRepository.save(role);
+        }
+        roleCatalog.refresh();
+        prefixIndex.rebuild();
+        availability.rebuild();
+    }
+
+    public Role role(String name) {
+        return roleRepository.findByName(name).orElseThrow();
+    }
+
+    /**
+     * Guarda el usuario directamente con el repositorio y los roles indicados, sin pasar
+     * por el servicio (no publica UserChangedEvent).
+     */
+    public User save(User user, String... roles) {
+        List<Role> assigned = new ArrayList<>();
+        for (String name : roles) {
+            assigned.add(role(name));
+        }
+        user.setRoles(assigned);
+        return userRepository.save(user);
+    }
+
+    /** Usuario sin guardar con password "secret" */
+    public static User user(String username, String email) {
+        User user = new User();
+        user.setName("Name");
+        user.setLastname("Lastname");
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword("secret");
+        return user;
+    }
+}
@@ -0,0 +1,233 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.Jwk;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Rotación de claves leyendo un keystore PKCS12 real con un reloj controlado: activación
+ * diferida de las claves nuevas, periodo de gracia de las retiradas y modo asimétrico con JWKS.
+ */
+class JwtKeyRingTests {
+
+    private static final String PASSWORD = "changeit";
+
+    @TempDir
+    Path dir;
+
+    private final TestClock clock = new TestClock();
+
+    private final JwtTokenCache tokenCache = new JwtTokenCache(100);
+
+    private File keystore;
+
+    @BeforeEach
+    void setUp() {
+        keystore = dir.resolve("jwt.p12").toFile();
+    }
+
+    @Test
+    void newKeysActivateAfterDelayAndRetiredKeysExpireAfterGrace() throws Exception {
+        writeKeystore(1, "k1");
+        JwtKeyRing ring = ring();
+        assertEquals("k1", ring.signingKey().kid());
+
+        writeKeystore(2, "k1", "k2");
+        ring.reload();
+        assertEquals("k1", ring.signingKey().kid());
+        assertNotNull(ring.verificationKey("k2"));
+
+        clock.advance(Duration.ofMinutes(6));
+        ring.reload();
+        assertEquals("k2", ring.signingKey().kid());
+
+        writeKeystore(3, "k2");
+        ring.reload();
+        assertNotNull(ring.verificationKey("k1"));
+
+        tokenCache.put("token", null, Long.MAX_VALUE);
+        clock.advance(Duration.ofMinutes(61));
+        ring.reload();
+        assertNull(ring.verificationKey("k1"));
+        assertEquals(0, tokenCache.size());
+    }
+
+    @Test
+    void verifierSelectsKeyByKid() throws Exception {
+        writeKeystore(1, "k1");
+        JwtKeyRing ring = ring();
+        JwtTokenVerifier verifier = verifier(ring);
+
+        String token = issuer(ring).issue("admin", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        assertEquals("admin", verifier.verify(token).getName());
+
+        // Misma clave sin kid, y un kid que el keystore no tiene
+        String withoutKid = Jwts.builder().subject("admin").signWith(ring.verificationKey("k1")).compact();
+        assertThrows(JwtException.class, () -> verifier.verify(withoutKid));
+        String unknownKid = Jwts.builder().header().keyId("k9").and().subject("admin")
+                .signWith(ring.verificationKey("k1")).compact();
+        assertThrows(JwtException.class, () -> verifier.verify(unknownKid));
+    }
+
+    @Test
+    void verifierAcceptsLegacyAuthoritiesString() throws Exception {
+        writeKeystore(1, "k1");
+        JwtKeyRing ring = ring();
+        JwtTokenVerifier verifier = verifier(ring);
+
+        // Formato anterior a AuthoritiesClaim: los roles como JSON serializado dentro de un string
+        String legacy = legacyToken(ring, "[{\"authority\":\"ROLE_ADMIN\"},{\"authority\":\"ROLE_USER\"}]");
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER")),
+                List.copyOf(verifier.verify(legacy).getAuthorities()));
+
+        assertThrows(MalformedJwtException.class, () -> verifier.verify(legacyToken(ring, "[{\"authority\":")));
+    }
+
+    @Test
+    void asymmetricModeSignsWithKeyPairAndPublishesOnlyPublicKeys() throws Exception {
+        writeKeystore(1, "hs1");
+        JwtKeyRing hmacRing = ring("HS256");
+        JwtTokenVerifier hmacVerifier = verifier(hmacRing);
+        String hmacToken = issuer(hmacRing).issue("admin", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        assertTrue(hmacRing.jwks().get("keys").isEmpty());
+
+        // Migración: se añade un par EC con keytool y se pasa a ES256 sin invalidar los tokens HS256
+        keytool("-genkeypair", "-alias", "es1", "-keyalg", "EC", "-groupname", "secp256r1", "-dname", "CN=jwt");
+        JwtKeyRing ring = ring("ES256");
+        assertEquals("es1", ring.signingKey().kid());
+        JwtTokenVerifier verifier = verifier(ring);
+        String token = issuer(ring).issue("admin", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        assertEquals("ES256", Jwts.parser().keyLocator(h -> ring.verificationKey("es1")).build()
+                .parseSignedClaims(token).getHeader().getAlgorithm());
+        assertEquals("admin", verifier.verify(token).getName());
+        assertEquals("admin", verifier.verify(hmacToken).getName());
+        assertThrows(JwtException.class, () -> hmacVerifier.verify(token));
+
+        // El JWKS solo publica la clave pública EC
+        List<Jwk<?>> jwks = ring.jwks().get("keys");
+        assertEquals(1, jwks.size());
+        Jwk<?> jwk = jwks.get(0);
+        assertEquals("es1", jwk.getId());
+        assertEquals("EC", jwk.getType());
+        assertFalse(jwk.containsKey("d"));
+    }
+
+    @Test
+    void ephemeralEdDsaKeyRoundTrips() {
+        JwtKeyRing ring = new JwtKeyRing("", "", "", "EdDSA", Duration.ZERO, Duration.ZERO, tokenCache, clock);
+        String token = issuer(ring).issue("admin", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        assertEquals("admin", verifier(ring).verify(token).getName());
+        assertEquals("OKP", ring.jwks().get("keys").get(0).getType());
+        assertThrows(IllegalArgumentException.class,
+                () -> new JwtKeyRing("", "", "", "RS256", Duration.ZERO, Duration.ZERO, tokenCache, clock));
+    }
+
+    private JwtKeyRing ring() {
+        return ring("HS256");
+    }
+
+    private JwtKeyRing ring(String algorithm) {
+        return new JwtKeyRing(keystore.getPath(), PASSWORD, "", algorithm, Duration.ofMinutes(5),
+                Duration.ofHours(1), tokenCache, clock);
+    }
+
+    private static String legacyToken(JwtKeyRing ring, String authorities) {
+        JwtKeyRing.SigningKey signingKey = ring.signingKey();
+        return Jwts.builder().header().keyId(signingKey.kid()).and()
+                .subject("admin")
+                .claim(AuthoritiesClaim.NAME, authorities)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(signingKey.key())
+                .compact();
+    }
+
+    private static JwtTokenIssuer issuer(JwtKeyRing ring) {
+        JwtTokenIssuer issuer = new JwtTokenIssuer();
+        ReflectionTestUtils.setField(issuer, "keyRing", ring);
+        return issuer;
+    }
+
+    private JwtTokenVerifier verifier(JwtKeyRing ring) {
+        JwtTokenVerifier verifier = new JwtTokenVerifier();
+        ReflectionTestUtils.setField(verifier, "keyRing", ring);
+        ReflectionTestUtils.setField(verifier, "tokenCache", new JwtTokenCache(100));
+        ReflectionTestUtils.setField(verifier, "jsonCodec", new AuthJsonCodec());
+        ReflectionTestUtils.setField(verifier, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(verifier, "registerTimers");
+        return verifier;
+    }
+
+    /** Ejecuta keytool del JDK sobre el keystore de la prueba */
+    private void keytool(String... args) throws Exception {
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-keystore", keystore.getPath(), "-storetype", "PKCS12", "-storepass", PASSWORD));
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes());
+        assertEquals(0, process.waitFor(), output);
+    }
+
+    /**
+     * Escribe el keystore con las claves indicadas; las que ya existían conservan su material.
+     * version fija la fecha de modificación para que cada reescritura se detecte.
+     */
+    private void writeKeystore(int version, String... kids) throws Exception {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        KeyStore.PasswordProtection protection = new KeyStore.PasswordProtection(PASSWORD.toCharArray());
+        if (keystore.exists()) {
+            try (InputStream in = new FileInputStream(keystore)) {
+                store.load(in, PASSWORD.toCharArray());
+            }
+            for (String alias : Collections.list(store.aliases())) {
+                if (!List.of(kids).contains(alias)) {
+                    store.deleteEntry(alias);
+                }
+            }
+        } else {
+            store.load(null, null);
+        }
+        for (String kid : kids) {
+            if (!store.containsAlias(kid)) {
+                byte[] secret = new byte[32];
+                new SecureRandom().nextBytes(secret);
+                store.setEntry(kid, new KeyStore.SecretKeyEntry(new SecretKeySpec(secret, "HmacSHA256")), protection);
+            }
+        }
+        try (OutputStream out = new FileOutputStream(keystore)) {
+            store.store(out, PASSWORD.toCharArray());
+        }
+        keystore.setLastModified(version * 1000L);
+    }
+}
@@ -0,0 +1,145 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Expiración por exp, desalojo al llegar al tamaño máximo y copias sin credenciales,
+ * con un reloj controlado.
+ */
+class JwtTokenCacheTests {
+
+    private final TestClock clock = new TestClock();
+
+    @Test
+    void entriesExpireAtExp() {
+        JwtTokenCache cache = new JwtTokenCache(10, clock);
+        cache.put("token", authentication(), clock.millis() + 1000);
+        assertNotNull(cache.get("token"));
+
+        clock.advance(Duration.ofMillis(999));
+        assertNotNull(cache.get("token"));
+
+        clock.advance(Duration.ofMillis(1));
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        // Un token ya expirado no se guarda
+        cache.put("expired", authentication(), clock.millis());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void fullCacheEvictsExpiredEntriesFirstThenDownToNinetyPercent() {
+        JwtTokenCache cache = new JwtTokenCache(10, clock);
+        for (int i = 0; i < 3; i++) {
+            cache.put("short" + i, authentication(), clock.millis() + 1000);
+        }
+        for (int i = 0; i < 7; i++) {
+            cache.put("long" + i, authentication(), clock.millis() + 3_600_000);
+        }
+        clock.advance(Duration.ofSeconds(1));
+
+        // Al llegar al máximo bastan los 3 expirados para hacer sitio
+        cache.put("long7", authentication(), clock.millis() + 3_600_000);
+        assertEquals(8, cache.size());
+        assertEquals(3, cache.getEvictions());
+        for (int i = 0; i < 8; i++) {
+            assertNotNull(cache.get("long" + i));
+        }
+
+        // Sin expirados se descartan entradas vigentes hasta el 90% (9) antes de añadir
+        cache.put("long8", authentication(), clock.millis() + 3_600_000);
+        cache.put("long9", authentication(), clock.millis() + 3_600_000);
+        cache.put("long10", authentication(), clock.millis() + 3_600_000);
+        assertEquals(10, cache.size());
+        assertEquals(4, cache.getEvictions());
+        assertNotNull(cache.get("long10"));
+    }
+
+    @Test
+    void fullCacheEvictsTheSoonestExpiringEntries() {
+        JwtTokenCache cache = new JwtTokenCache(20, clock);
+        // Insertados del que más dura al que menos, para no coincidir con el orden de expiración
+        for (int i = 19; i >= 0; i--) {
+            cache.put("token" + i, authentication(), clock.millis() + (i + 1) * 60_000L);
+        }
+
+        // Del máximo (20) al 90% (18): salen los dos que expiran antes
+        cache.put("fresh", authentication(), clock.millis() + 3_600_000);
+        assertEquals(19, cache.size());
+        assertEquals(2, cache.getEvictions());
+        assertNull(cache.get("token0"));
+        assertNull(cache.get("token1"));
+        for (int i = 2; i < 20; i++) {
+            assertNotNull(cache.get("token" + i));
+        }
+        assertNotNull(cache.get("fresh"));
+    }
+
+    @Test
+    void countersAreRegisteredAsMetrics() {
+        JwtTokenCache cache = new JwtTokenCache(10, clock);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.put("token", authentication(), clock.millis() + 1000);
+        cache.get("token");
+        cache.get("other");
+        cache.clear();
+
+        assertEquals(1, registry.get("auth.token.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("auth.token.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("auth.token.cache.evictions").functionCounter().count());
+        assertEquals(0, registry.get("auth.token.cache.size").gauge().value());
+    }
+
+    @Test
+    void getReturnsAFreshCopyWithoutCredentials() {
+        JwtTokenCache cache = new JwtTokenCache(10, clock);
+        UsernamePasswordAuthenticationToken stored = authentication();
+        cache.put("token", stored, clock.millis() + 1000);
+
+        UsernamePasswordAuthenticationToken first = cache.get("token");
+        UsernamePasswordAuthenticationToken second = cache.get("token");
+
+        assertNotSame(stored, first);
+        assertNotSame(first, second);
+        assertNull(first.getCredentials());
+        assertTrue(first.isAuthenticated());
+        assertEquals("admin", first.getPrincipal());
+        assertEquals(stored.getAuthorities(), first.getAuthorities());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void clearDropsEveryEntry() {
+        JwtTokenCache cache = new JwtTokenCache(10, clock);
+        cache.put("a", authentication(), clock.millis() + 1000);
+        cache.put("b", authentication(), clock.millis() + 1000);
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getEvictions());
+        assertNull(cache.get("a"));
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication() {
+        return new UsernamePasswordAuthenticationToken("admin", "secret",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    }
+}
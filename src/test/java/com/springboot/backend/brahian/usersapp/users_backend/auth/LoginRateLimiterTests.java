@@ -0,0 +1,143 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import com.springboot.backend.brahian.usersapp.users_backend.auth.filter.JwtAuthenticationFilter;
+
+/**
+ * Buckets del limitador con un reloj controlado y rechazo en el filtro de login
+ * sin llegar al AuthenticationManager.
+ */
+class LoginRateLimiterTests {
+
+    private static final String BODY = "{\"username\":\"victima\",\"password\":\"x\"}";
+
+    private final AtomicLong now = new AtomicLong();
+
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        // IP: 3 intentos seguidos y 60 por minuto; usuario: 2 fallos seguidos y 6 por minuto
+        limiter = new LoginRateLimiter(true, 3, 60, 2, 6, 1000, now::get);
+    }
+
+    @Test
+    void ipBucketRefillsOverTime() {
+        assertEquals(0, limiter.acquireForIp("10.0.0.1"));
+        assertEquals(0, limiter.acquireForIp("10.0.0.1"));
+        assertEquals(0, limiter.acquireForIp("10.0.0.1"));
+        assertEquals(1, limiter.acquireForIp("10.0.0.1"));
+        assertEquals(0, limiter.acquireForIp("10.0.0.2"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limiter.acquireForIp("10.0.0.1"));
+        assertEquals(1, limiter.acquireForIp("10.0.0.1"));
+        assertEquals(2, limiter.getIpRejections());
+    }
+
+    @Test
+    void refundedAttemptsDoNotCountForUsername() {
+        assertEquals(0, limiter.acquireForUsername("pepe"));
+        limiter.refundUsername("pepe");
+        assertEquals(0, limiter.acquireForUsername("Pepe"));
+        assertEquals(0, limiter.acquireForUsername("PEPE"));
+        assertEquals(10, limiter.acquireForUsername("pepe"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, limiter.acquireForUsername("pepe"));
+    }
+
+    @Test
+    void filterRejectsBeforeAuthenticating() throws Exception {
+        AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(authenticationManager, new AuthJsonCodec(),
+                null, limiter);
+
+        MockHttpServletResponse malformed = new MockHttpServletResponse();
+        assertNull(filter.attemptAuthentication(login("{\"username\":"), malformed));
+        assertEquals(400, malformed.getStatus());
+
+        MockHttpServletResponse missingPassword = new MockHttpServletResponse();
+        assertNull(filter.attemptAuthentication(login("{\"username\":\"pepe\"}"), missingPassword));
+        assertEquals(400, missingPassword.getStatus());
+
+        limiter.acquireForUsername("pepe");
+        limiter.acquireForUsername("pepe");
+        MockHttpServletResponse limited = new MockHttpServletResponse();
+        assertNull(filter.attemptAuthentication(login("{\"username\":\"pepe\",\"password\":\"x\"}"), limited));
+        assertEquals(429, limited.getStatus());
+        assertEquals("10", limited.getHeader("Retry-After"));
+        assertTrue(limited.getContentAsString().contains("Too Many Requests"));
+
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    void concurrentAttemptsOnOneUsernameAreLimitedWhileInFlight() throws Exception {
+        CountDownLatch inFlight = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation -> {
+            // Simula BCrypt en curso: el intento sigue ocupando su ficha
+            inFlight.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new BadCredentialsException("Credenciales invalidas");
+        });
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(authenticationManager, new AuthJsonCodec(),
+                null, limiter);
+
+        // Cada intento llega desde una IP distinta, como en un ataque de credential stuffing
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                String ip = "10.1.0." + i;
+                executor.submit(() -> filter.attemptAuthentication(login(BODY, ip), new MockHttpServletResponse()));
+            }
+            assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+
+            for (int i = 2; i < 5; i++) {
+                MockHttpServletResponse limited = new MockHttpServletResponse();
+                assertNull(filter.attemptAuthentication(login(BODY, "10.1.0." + i), limited));
+                assertEquals(429, limited.getStatus());
+            }
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        verify(authenticationManager, times(2)).authenticate(any());
+    }
+
+    private static MockHttpServletRequest login(String body) {
+        return login(body, "10.0.0.9");
+    }
+
+    private static MockHttpServletRequest login(String body, String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes());
+        return request;
+    }
+}
@@ -0,0 +1,123 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.springboot.backend.brahian.usersapp.users_backend.auth.filter.JwtAuthenticationFilter;
+
+/**
+ * Pool acotado de BCrypt: rechazo cuando está saturado (503 en el login) y decisión de
+ * re-hash según el coste del hash guardado.
+ */
+class PooledPasswordEncoderTests {
+
+    /**
+     * Un hilo y un hueco en cola: la tercera operación simultánea se rechaza. Cada prueba
+     * empieza con el pool sin hilos, así la primera tarea ocupa el hilo y la segunda la cola.
+     */
+    private final PooledPasswordEncoder encoder = new PooledPasswordEncoder(4, 1, 1, 5000);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    void saturatedPoolRejectsInsteadOfQueueing() {
+        CompletableFuture<String> running = encoder.encodeAsync(blocked());
+        CompletableFuture<String> queued = encoder.encodeAsync(blocked());
+
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("secret"));
+        assertEquals(1, encoder.getRejectedCount());
+
+        release.countDown();
+        String first = running.join();
+        String second = queued.join();
+        assertTrue(encoder.matches("secret", first));
+        assertTrue(encoder.matches("secret", second));
+    }
+
+    @Test
+    void saturatedPoolAnswersLoginWithServiceUnavailable() throws Exception {
+        String hash = new BCryptPasswordEncoder(4).encode("secret");
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(encoder);
+        provider.setUserDetailsService(username -> User.withUsername(username).password(hash).roles("USER").build());
+        LoginRateLimiter limiter = new LoginRateLimiter(true, 10, 60, 10, 60, 1000, System::nanoTime);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(new ProviderManager(provider), new AuthJsonCodec(),
+                null, limiter);
+
+        encoder.encodeAsync(blocked());
+        encoder.encodeAsync(blocked());
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setServletPath("/login");
+        request.setContentType("application/json");
+        request.setContent("{\"username\":\"pepe\",\"password\":\"secret\"}".getBytes());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+    }
+
+    @Test
+    void upgradeEncodingComparesTheCostDigits() {
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertFalse(encoder.upgradeEncoding("$2a$04$" + "x".repeat(53)));
+        assertTrue(encoder.upgradeEncoding("$2a$10$" + "x".repeat(53)));
+        assertTrue(encoder.upgradeEncoding("$2b$12$" + "x".repeat(53)));
+
+        // Sin formato BCrypt no se pide re-hash
+        assertFalse(encoder.upgradeEncoding(null));
+        assertFalse(encoder.upgradeEncoding("secret"));
+        assertFalse(encoder.upgradeEncoding("$2a$1x$" + "x".repeat(53)));
+    }
+
+    /** Contraseña que retiene el hilo del pool hasta release (BCrypt llama a toString) */
+    private CharSequence blocked() {
+        return new CharSequence() {
+            @Override
+            public String toString() {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "secret";
+            }
+
+            @Override
+            public int length() {
+                return toString().length();
+            }
+
+            @Override
+            public char charAt(int index) {
+                return toString().charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return toString().subSequence(start, end);
+            }
+        };
+    }
+}
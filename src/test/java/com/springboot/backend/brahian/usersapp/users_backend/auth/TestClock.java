@@ -0,0 +1,35 @@
+package com.springboot.backend.brahian.usersapp.users_backend.auth;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Reloj de prueba que parte de la hora real (la misma con la que el keystore fecha las entradas)
+ * y solo avanza con advance().
+ */
+class TestClock extends Clock {
+
+    private Instant now = Instant.now();
+
+    void advance(Duration duration) {
+        now = now.plus(duration);
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+}
@@ -0,0 +1,90 @@
+package com.springboot.backend.brahian.usersapp.users_backend.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.AuthJsonCodec;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.AuthoritiesClaim;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.filter.SimpleGrantedAuthorityJsonCreator;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+
+/**
+ * Compara el trabajo JSON por petición de los filtros de autenticación:
+ * un ObjectMapper nuevo en cada llamada (antes) contra el AuthJsonCodec compartido (después),
+ * y el claim "authorities" como JSON dentro de un string contra el arreglo nativo de nombres.
+ *
+ * La asignación por operación está en gc.alloc.rate.norm (el perfil benchmark usa -prof gc).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthJsonCodecBenchmark {
+
+    private final AuthJsonCodec codec = new AuthJsonCodec();
+
+    private final byte[] loginBody = "{\"username\":\"admin\",\"password\":\"12345\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final List<GrantedAuthority> roles = List.of(
+            new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    private final String authoritiesJson = "[{\"authority\":\"ROLE_USER\"},{\"authority\":\"ROLE_ADMIN\"}]";
+
+    private final List<String> authorityNames = List.of("ROLE_USER", "ROLE_ADMIN");
+
+    private final Map<String, String> responseBody = new HashMap<>(Map.of(
+            "token", "eyJhbGciOiJIUzI1NiJ9.e30.signature",
+            "username", "admin",
+            "message", "Hola admin has iniciado sesion con exito"));
+
+    @Benchmark
+    public Object loginPerRequestMapper() throws Exception {
+        User user = new ObjectMapper().readValue(new ByteArrayInputStream(loginBody), User.class);
+        String claim = new ObjectMapper().writeValueAsString(roles);
+        return new ObjectMapper().writeValueAsString(responseBody) + claim + user.getUsername();
+    }
+
+    @Benchmark
+    public Object loginSharedCodec() throws Exception {
+        User user = codec.readUser(new ByteArrayInputStream(loginBody));
+        List<String> claim = AuthoritiesClaim.encode(roles);
+        return codec.writeMap(responseBody) + claim + user.getUsername();
+    }
+
+    @Benchmark
+    public Object validationPerRequestMapper() throws Exception {
+        return Arrays.asList(new ObjectMapper()
+                .addMixIn(SimpleGrantedAuthority.class, SimpleGrantedAuthorityJsonCreator.class)
+                .readValue(authoritiesJson.getBytes(), SimpleGrantedAuthority[].class));
+    }
+
+    @Benchmark
+    public Object validationSharedCodec() throws Exception {
+        return AuthoritiesClaim.decode(authoritiesJson, codec);
+    }
+
+    @Benchmark
+    public Object validationNativeClaim() throws Exception {
+        return AuthoritiesClaim.decode(authorityNames, codec);
+    }
+}
@@ -0,0 +1,87 @@
+package com.springboot.backend.brahian.usersapp.users_backend.benchmarks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.springboot.backend.brahian.usersapp.users_backend.auth.AuthJsonCodec;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.JwtKeyRing;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.JwtTokenCache;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.JwtTokenIssuer;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.JwtTokenVerifier;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Emisión de tokens (como en JwtAuthenticationFilter.successfulAuthentication) y validación
+ * con decodificación de roles (como en JwtValidationFilter.doFilterInternal), con y sin la
+ * caché de tokens verificados.
+ *
+ * Se repite con cada algoritmo de auth.jwt.algorithm para comparar el coste de firmar (issue)
+ * y verificar (validateUncached) con HS256, ES256 y EdDSA (Ed25519).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private final List<GrantedAuthority> roles = List.of(
+            new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    private final JwtTokenIssuer issuer = new JwtTokenIssuer();
+
+    private final JwtTokenCache tokenCache = new JwtTokenCache(10000);
+
+    private final JwtTokenVerifier verifier = new JwtTokenVerifier();
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing("", "", "", algorithm, Duration.ZERO, Duration.ZERO, tokenCache);
+        ReflectionTestUtils.setField(issuer, "keyRing", keyRing);
+        ReflectionTestUtils.setField(verifier, "keyRing", keyRing);
+        ReflectionTestUtils.setField(verifier, "tokenCache", tokenCache);
+        ReflectionTestUtils.setField(verifier, "jsonCodec", new AuthJsonCodec());
+        ReflectionTestUtils.setField(verifier, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(verifier, "registerTimers");
+        token = issuer.issue("admin", roles);
+    }
+
+    @Benchmark
+    public String issue() {
+        return issuer.issue("admin", roles);
+    }
+
+    @Benchmark
+    public Object validateUncached() {
+        tokenCache.clear();
+        return verifier.verify(token);
+    }
+
+    @Benchmark
+    public Object validateCached() {
+        return verifier.verify(token);
+    }
+}
@@ -0,0 +1,93 @@
+package com.springboot.backend.brahian.usersapp.users_backend.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.Role;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserView;
+
+/**
+ * Serialización Jackson de las respuestas de UserController: un User (GET /api/users/{id})
+ * y una página de UserView (GET /api/users/page/{page}), con un ObjectMapper configurado
+ * como el de Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+    /** Página de usuarios; 4 es el tamaño que usa UserController */
+    @State(Scope.Benchmark)
+    public static class PageState {
+
+        @Param({ "4", "100" })
+        public int pageSize;
+
+        private Page<UserView> page;
+
+        @Setup
+        public void setUp() {
+            List<UserView> users = new ArrayList<>();
+            for (long i = 1; i <= pageSize; i++) {
+                users.add(UserView.from(user(i)));
+            }
+            page = new PageImpl<>(users, PageRequest.of(0, pageSize), 1000);
+        }
+    }
+
+    private final ObjectWriter writer = Jackson2ObjectMapperBuilder.json().build().writer();
+
+    private final User user = user(1);
+
+    @Benchmark
+    public byte[] user() throws Exception {
+        return writer.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] page(PageState state) throws Exception {
+        return writer.writeValueAsBytes(state.page);
+    }
+
+    private static User user(long id) {
+        Role userRole = new Role();
+        userRole.setId(1L);
+        userRole.setName("ROLE_USER");
+        Role adminRole = new Role();
+        adminRole.setId(2L);
+        adminRole.setName("ROLE_ADMIN");
+
+        User user = new User();
+        user.setId(id);
+        user.setName("Nombre" + id);
+        user.setLastname("Apellido" + id);
+        user.setUsername("user" + id);
+        user.setEmail("user" + id + "@mail.com");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6Ql7zb3e2Ps0vIrS5iN5bAG");
+        user.setVersion(0L);
+        user.setRoles(id % 2 == 0 ? List.of(userRole, adminRole) : List.of(userRole));
+        return user;
+    }
+}
@@ -0,0 +1,155 @@
+package com.springboot.backend.brahian.usersapp.users_backend.controllers;
+
+import static com.springboot.backend.brahian.usersapp.users_backend.auth.TokenJwtConfig.*;
+import static com.springboot.backend.brahian.usersapp.users_backend.UserTestData.user;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.springboot.backend.brahian.usersapp.users_backend.UserTestData;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.JwtTokenIssuer;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(UserTestData.class)
+class UserControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenIssuer tokenIssuer;
+
+    @Autowired
+    private UserTestData testData;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seed() {
+        testData.reset();
+    }
+
+    @Test
+    void malformedNdjsonLineIsReportedAndImportContinues() throws Exception {
+        String body = """
+                {"name":"Nd","lastname":"Json","username":"ndjson1","email":"ndjson1@mail.com","password":"secret"}
+                {"name":"Nd","lastname":
+                {"name":"Nd","lastname":"Json","username":"ndjson2","email":"ndjson2@mail.com","password":"secret"}
+                """;
+
+        mockMvc.perform(post("/api/users/batch").contentType("application/x-ndjson").content(body)
+                .header(HEADER_AUTHORIZATION, PREFIX_TOKEN + adminToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.results[1].errors.json").exists())
+                .andExpect(jsonPath("$.results[2].status").value("CREATED"));
+    }
+
+    @Test
+    void unchangedUserAndPageAnswerNotModified() throws Exception {
+        User saved = testData.save(user("etaguser", "etaguser@mail.com"), "ROLE_USER");
+
+        String etag = mockMvc.perform(get("/api/users/{id}", saved.getId())
+                .header(HEADER_AUTHORIZATION, PREFIX_TOKEN + adminToken()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/users/{id}", saved.getId()).header(HttpHeaders.IF_NONE_MATCH, etag)
+                .header(HEADER_AUTHORIZATION, PREFIX_TOKEN + adminToken()))
+                .andExpect(status().isNotModified());
+
+        String pageEtag = mockMvc.perform(get("/api/users/page/0"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/users/page/0").header(HttpHeaders.IF_NONE_MATCH, pageEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void ifMatchRequiresTheCurrentStrongEtagOfTheSameUser() throws Exception {
+        User saved = testData.save(user("ifmatch", "ifmatch@mail.com"), "ROLE_USER");
+        User other = testData.save(user("ifother", "ifother@mail.com"), "ROLE_USER");
+        String etag = "\"" + saved.getId() + "-" + saved.getVersion() + "\"";
+
+        // Débil, de otro usuario o mal formado: 412 sin modificar nada
+        update(saved.getId(), "W/" + etag).andExpect(status().isPreconditionFailed());
+        update(saved.getId(), "\"" + other.getId() + "-" + other.getVersion() + "\"").andExpect(status().isPreconditionFailed());
+        update(saved.getId(), saved.getId() + "-" + saved.getVersion()).andExpect(status().isPreconditionFailed());
+
+        String current = update(saved.getId(), etag)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // El ETag leído antes de la actualización ya no es válido
+        update(saved.getId(), etag).andExpect(status().isPreconditionFailed());
+        update(saved.getId(), current).andExpect(status().isOk());
+    }
+
+    @Test
+    void loginRehashesOutdatedCostWithoutChangingTheUser() throws Exception {
+        User outdated = user("rehash", "rehash@mail.com");
+        outdated.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+        outdated = testData.save(outdated, "ROLE_USER");
+        User other = testData.save(user("rehashother", "rehashother@mail.com"), "ROLE_USER");
+        assertTrue(entityManagerFactory.getCache().contains(User.class, outdated.getId()));
+
+        mockMvc.perform(post("/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"rehash\",\"password\":\"secret\"}"))
+                .andExpect(status().isOk());
+
+        // Se desaloja solo el usuario re-hasheado; su versión (y su ETag) no cambia
+        assertFalse(entityManagerFactory.getCache().contains(User.class, outdated.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(User.class, other.getId()));
+        User rehashed = userRepository.findById(outdated.getId()).orElseThrow();
+        assertTrue(rehashed.getPassword().startsWith("$2a$10$"));
+        assertTrue(passwordEncoder.matches("secret", rehashed.getPassword()));
+        assertEquals(outdated.getVersion(), rehashed.getVersion());
+    }
+
+    private ResultActions update(Long id, String ifMatch) throws Exception {
+        return mockMvc.perform(put("/api/users/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"If\",\"lastname\":\"Match\",\"username\":\"ifmatch\",\"email\":\"ifmatch@mail.com\"}")
+                .header(HttpHeaders.IF_MATCH, ifMatch)
+                .header(HEADER_AUTHORIZATION, PREFIX_TOKEN + adminToken()));
+    }
+
+    private String adminToken() {
+        return tokenIssuer.issue("admin", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    }
+}
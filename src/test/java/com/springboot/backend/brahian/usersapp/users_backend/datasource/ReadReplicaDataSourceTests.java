@@ -0,0 +1,80 @@
+package com.springboot.backend.brahian.usersapp.users_backend.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Enrutado de lecturas con dos bases H2 en memoria: cada una guarda su nombre en la
+ * tabla node, así cada consulta indica a qué base llegó.
+ */
+class ReadReplicaDataSourceTests {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReadReplicaDataSource replicaDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        replica = h2("replica");
+        replicaDataSource = new ReadReplicaDataSource(primary, Map.of("replica-1", replica), 1);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        assertEquals("replica", currentNode(true));
+        assertEquals("primary", currentNode(false));
+        assertEquals(0, replicaDataSource.getFallbackCount());
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhileReplicaIsDown() {
+        replica.close();
+
+        assertEquals("primary", currentNode(true));
+        assertEquals(0, replicaDataSource.getHealthyCount());
+        assertEquals(1, replicaDataSource.getFallbackCount());
+
+        replicaDataSource.checkHealth();
+        assertEquals("primary", currentNode(true));
+    }
+
+    private String currentNode(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(2);
+        new JdbcTemplate(dataSource).execute("create table node (name varchar(20))");
+        new JdbcTemplate(dataSource).update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+}
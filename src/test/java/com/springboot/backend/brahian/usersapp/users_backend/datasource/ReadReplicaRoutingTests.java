@@ -0,0 +1,100 @@
+package com.springboot.backend.brahian.usersapp.users_backend.datasource;
+
+import static com.springboot.backend.brahian.usersapp.users_backend.UserTestData.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.springboot.backend.brahian.usersapp.users_backend.services.RoleCatalog;
+import com.springboot.backend.brahian.usersapp.users_backend.services.UseDetailsService;
+import com.springboot.backend.brahian.usersapp.users_backend.services.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Enrutado de la aplicación completa con datasource.replicas.enabled=true y dos bases H2 propias
+ * de este contexto: la réplica recibe el esquema del primario y filas distintas, así el resultado
+ * de cada operación del servicio indica a qué base llegó.
+ */
+@SpringBootTest(properties = {
+        "datasource.replicas.enabled=true",
+        "spring.datasource.url=" + ReadReplicaRoutingTests.PRIMARY_URL,
+        "datasource.replicas.urls=" + ReadReplicaRoutingTests.REPLICA_URL })
+class ReadReplicaRoutingTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    /** Fuera del rango de la secuencia users_seq para no chocar con las altas de la prueba */
+    private static final long ROUTED_ID = 100_000L;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UseDetailsService useDetailsService;
+
+    @Autowired
+    private RoleCatalog roleCatalog;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    private JdbcTemplate primary;
+
+    @BeforeEach
+    void seed() {
+        primary = new JdbcTemplate(primaryDataSource);
+        if (replica.queryForObject("select count(*) from information_schema.tables where table_schema = 'public' and table_name = 'users'",
+                Integer.class) == 0) {
+            // Hibernate solo crea el esquema en el primario
+            primary.queryForList("script nodata", String.class).forEach(replica::execute);
+        }
+        for (JdbcTemplate node : new JdbcTemplate[] { primary, replica }) {
+            node.update("delete from users_roles");
+            node.update("delete from users");
+            node.update("delete from roles");
+            node.update("insert into roles (id, name) values (1, 'ROLE_USER'), (2, 'ROLE_ADMIN')");
+            String name = node == primary ? "Primary" : "Replica";
+            node.update("insert into users (id, name, lastname, username, email, password, version) values (?, ?, 'Node', 'routed', 'routed@mail.com', 'secret', 0)",
+                    ROUTED_ID, name);
+            node.update("insert into users_roles (user_id, role_id) values (?, 1)", ROUTED_ID);
+        }
+        replica.update("insert into users (id, name, lastname, username, email, password, version) values (?, 'Replica', 'Only', 'replonly', 'replonly@mail.com', 'secret', 0)",
+                ROUTED_ID + 1);
+        replica.update("insert into users_roles (user_id, role_id) values (?, 1)", ROUTED_ID + 1);
+        entityManagerFactory.getCache().evictAll();
+        roleCatalog.refresh();
+    }
+
+    @Test
+    void readsGoToReplica() {
+        assertEquals("Replica", userService.getUserById(ROUTED_ID).orElseThrow().getName());
+        assertEquals("replonly", useDetailsService.loadUserByUsername("replonly").getUsername());
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        userService.createUser(user("created", "created@mail.com"));
+
+        String count = "select count(*) from users where username = 'created'";
+        assertEquals(1, primary.queryForObject(count, Integer.class));
+        assertEquals(0, replica.queryForObject(count, Integer.class));
+        // La réplica aún no lo tiene: el login, que lee de la réplica, no lo encuentra
+        assertThrows(UsernameNotFoundException.class, () -> useDetailsService.loadUserByUsername("created"));
+    }
+}
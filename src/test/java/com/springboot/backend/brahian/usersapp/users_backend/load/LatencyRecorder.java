@@ -0,0 +1,78 @@
+package com.springboot.backend.brahian.usersapp.users_backend.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registra latencias (en nanosegundos) de un cliente de carga. Cada cliente usa su propio
+ * recorder, sin sincronización, y al final se combinan con merge().
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+
+    public void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public void recordError() {
+        errors++;
+    }
+
+    public void merge(LatencyRecorder other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + other.count));
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        errors += other.errors;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Percentil en milisegundos (p entre 0 y 100).
+     */
+    public double percentileMillis(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(p / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+    }
+
+    public String summary(double seconds) {
+        return String.format("peticiones=%d errores=%d rps=%.1f p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                count, errors, count / seconds,
+                percentileMillis(50), percentileMillis(95), percentileMillis(99), percentileMillis(100));
+    }
+
+    /**
+     * Resultado en formato de mapa, para escribirlo como JSON.
+     */
+    public Map<String, Object> toMap(double seconds) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", count);
+        result.put("errors", errors);
+        result.put("throughput", count / seconds);
+        result.put("p50", percentileMillis(50));
+        result.put("p95", percentileMillis(95));
+        result.put("p99", percentileMillis(99));
+        result.put("max", percentileMillis(100));
+        return result;
+    }
+}
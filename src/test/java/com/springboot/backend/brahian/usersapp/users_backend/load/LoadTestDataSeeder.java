@@ -0,0 +1,99 @@
+package com.springboot.backend.brahian.usersapp.users_backend.load;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.springboot.backend.brahian.usersapp.users_backend.entities.Role;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.RoleRepository;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.brahian.usersapp.users_backend.services.RoleCatalog;
+
+/**
+ * Siembra la base del perfil loadtest con los roles y con loadtest.seed.admins
+ * administradores (admin0, admin1, ...) y loadtest.seed.users usuarios (user0, user1, ...),
+ * todos con la contraseña loadtest.seed.password.
+ *
+ * La contraseña se hashea una sola vez y se reutiliza: hashear miles de filas con BCrypt
+ * alargaría el arranque varios minutos sin cambiar lo que mide la prueba.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private RoleCatalog roleCatalog;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${loadtest.seed.users:1000}")
+    private int users;
+
+    @Value("${loadtest.seed.admins:20}")
+    private int admins;
+
+    @Value("${loadtest.seed.password:12345}")
+    private String password;
+
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (userRepository.count() > 0) {
+            return;
+        }
+        Role userRole = role("ROLE_USER");
+        Role adminRole = role("ROLE_ADMIN");
+        String hash = passwordEncoder.encode(password);
+
+        List<User> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < admins + users; i++) {
+            boolean admin = i < admins;
+            User user = new User();
+            String username = admin ? "admin" + i : "user" + (i - admins);
+            user.setName(admin ? "Admin" : "User");
+            user.setLastname("Loadtest");
+            user.setUsername(username);
+            user.setEmail(username + "@loadtest.com");
+            user.setPassword(hash);
+            user.setRoles(admin ? List.of(userRole, adminRole) : List.of(userRole));
+            batch.add(user);
+            if (batch.size() == BATCH_SIZE) {
+                userRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        userRepository.saveAll(batch);
+        roleCatalog.refresh();
+        log.info("Perfil loadtest: {} administradores y {} usuarios creados", admins, users);
+    }
+
+    private Role role(String name) {
+        return roleRepository.findByName(name).orElseGet(() -> {
+            Role role = new Role();
+            role.setName(name);
+            return roleRepository.save(role);
+        });
+    }
+}
@@ -0,0 +1,312 @@
+package com.springboot.backend.brahian.usersapp.users_backend.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.backend.brahian.usersapp.users_backend.UsersBackendApplication;
+
+/**
+ * Prueba de carga de extremo a extremo contra la API servlet: login, GET /api/users/{id}
+ * con token, paginación, alta y actualización, mezclados según load.mix.
+ *
+ * Sin load.base-url arranca la aplicación con el perfil loadtest (H2 embebida y sembrada)
+ * en un puerto libre; con load.base-url ataca un servidor ya levantado, que debe tener los
+ * usuarios del perfil loadtest (admin0.., user0.., contraseña loadtest.seed.password).
+ *
+ * Parámetros (propiedades del sistema):
+ * - load.clients (50), load.seconds (30), load.warmup-seconds (5)
+ * - load.mix (login:5,get:50,page:30,create:10,update:5): peso relativo de cada operación
+ * - load.result (target/loadtest-result.json): resultados en JSON (rps y percentiles por operación)
+ */
+public class LoadTestDriver {
+
+    enum Operation {
+        LOGIN, GET, PAGE, CREATE, UPDATE
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final String baseUrl;
+    private final int admins;
+    private final int users;
+    private final String password;
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+
+    private List<Long> ids;
+    private int pages;
+
+    LoadTestDriver(String baseUrl, int admins, int users, String password, Map<Operation, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.admins = admins;
+        this.users = users;
+        this.password = password;
+        this.mix = mix;
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 50);
+        int seconds = Integer.getInteger("load.seconds", 30);
+        int warmupSeconds = Integer.getInteger("load.warmup-seconds", 5);
+        Map<Operation, Integer> mix = parseMix(System.getProperty("load.mix", "login:5,get:50,page:30,create:10,update:5"));
+        String resultFile = System.getProperty("load.result", "target/loadtest-result.json");
+        String baseUrl = System.getProperty("load.base-url");
+
+        ConfigurableApplicationContext context = null;
+        int admins = Integer.getInteger("loadtest.seed.admins", 20);
+        int users = Integer.getInteger("loadtest.seed.users", 1000);
+        String password = System.getProperty("loadtest.seed.password", "12345");
+        if (baseUrl == null) {
+            SpringApplication application = new SpringApplication(UsersBackendApplication.class);
+            application.setAdditionalProfiles("loadtest");
+            context = application.run("--server.port=0", "--rx.server.port=0", "--logging.level.root=WARN");
+            baseUrl = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+            admins = context.getEnvironment().getRequiredProperty("loadtest.seed.admins", Integer.class);
+            users = context.getEnvironment().getRequiredProperty("loadtest.seed.users", Integer.class);
+            password = context.getEnvironment().getRequiredProperty("loadtest.seed.password");
+        }
+        try {
+            LoadTestDriver driver = new LoadTestDriver(baseUrl, admins, users, password, mix);
+            driver.loadIds();
+            if (warmupSeconds > 0) {
+                driver.run(clients, warmupSeconds);
+            }
+            Map<Operation, LatencyRecorder> results = driver.run(clients, seconds);
+            report(results, clients, seconds, mix, resultFile);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private void loadIds() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/users")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        ids = new ArrayList<>();
+        for (JsonNode user : MAPPER.readTree(response.body())) {
+            ids.add(user.get("id").asLong());
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No hay usuarios en " + baseUrl + "; ¿se arrancó con el perfil loadtest?");
+        }
+        pages = Math.max(1, ids.size() / 4);
+    }
+
+    private Map<Operation, LatencyRecorder> run(int clients, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Map<Operation, LatencyRecorder>> perClient = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                recorders.put(operation, new LatencyRecorder());
+            }
+            perClient.add(recorders);
+            int clientId = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    new Client(clientId, recorders).run(deadline);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-driver-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        Map<Operation, LatencyRecorder> total = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            LatencyRecorder merged = new LatencyRecorder();
+            perClient.forEach(recorders -> merged.merge(recorders.get(operation)));
+            total.put(operation, merged);
+        }
+        return total;
+    }
+
+    /**
+     * Cliente de carga: inicia sesión como administrador y ejecuta operaciones al azar
+     * según los pesos de load.mix hasta el final de la prueba.
+     */
+    private class Client {
+
+        private final int clientId;
+        private final Map<Operation, LatencyRecorder> recorders;
+        private final List<Long> created = new ArrayList<>();
+        private String token;
+        private int sequence;
+
+        Client(int clientId, Map<Operation, LatencyRecorder> recorders) {
+            this.clientId = clientId;
+            this.recorders = recorders;
+        }
+
+        void run(long deadline) {
+            try {
+                token = login("admin" + (clientId % admins));
+            } catch (Exception e) {
+                recorders.get(Operation.LOGIN).recordError();
+                return;
+            }
+            while (System.nanoTime() < deadline) {
+                Operation operation = next();
+                if (operation == Operation.UPDATE && created.isEmpty()) {
+                    operation = Operation.CREATE;
+                }
+                LatencyRecorder recorder = recorders.get(operation);
+                long start = System.nanoTime();
+                try {
+                    if (execute(operation)) {
+                        recorder.record(System.nanoTime() - start);
+                    } else {
+                        recorder.recordError();
+                    }
+                } catch (Exception e) {
+                    recorder.recordError();
+                }
+            }
+        }
+
+        private boolean execute(Operation operation) throws IOException, InterruptedException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            switch (operation) {
+                case LOGIN:
+                    return login("user" + random.nextInt(users)) != null;
+                case GET:
+                    return send(authorized("/api/users/" + ids.get(random.nextInt(ids.size()))).GET()).statusCode() == 200;
+                case PAGE:
+                    return send(authorized("/api/users/page/" + random.nextInt(pages)).GET()).statusCode() == 200;
+                case CREATE: {
+                    String username = "c" + clientId + "n" + Integer.toString(sequence++, 36);
+                    Map<String, Object> body = userBody(username);
+                    body.put("password", password);
+                    HttpResponse<String> response = send(authorized("/api/users")
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body))));
+                    if (response.statusCode() != 201) {
+                        return false;
+                    }
+                    created.add(MAPPER.readTree(response.body()).get("id").asLong());
+                    return true;
+                }
+                case UPDATE: {
+                    Long id = created.get(random.nextInt(created.size()));
+                    Map<String, Object> body = userBody("c" + clientId + "u" + Long.toString(id, 36));
+                    body.put("name", "Actualizado" + random.nextInt(1000));
+                    return send(authorized("/api/users/" + id)
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))).statusCode() == 200;
+                }
+                default:
+                    throw new IllegalStateException(operation.name());
+            }
+        }
+
+        private String login(String username) throws IOException, InterruptedException {
+            Map<String, String> body = Map.of("username", username, "password", password);
+            HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body))));
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            return MAPPER.readTree(response.body()).get("token").asText();
+        }
+
+        private HttpRequest.Builder authorized(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Authorization", "Bearer " + token);
+        }
+
+        private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+            return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        private Operation next() {
+            int value = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+                value -= entry.getValue();
+                if (value < 0) {
+                    return entry.getKey();
+                }
+            }
+            return Operation.GET;
+        }
+    }
+
+    private static Map<String, Object> userBody(String username) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", "Carga");
+        body.put("lastname", "Loadtest");
+        body.put("username", username);
+        body.put("email", username + "@loadtest.com");
+        return body;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split(":");
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(entry[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("load.mix no define ninguna operacion: " + mix);
+        }
+        return weights;
+    }
+
+    private static void report(Map<Operation, LatencyRecorder> results, int clients, int seconds,
+            Map<Operation, Integer> mix, String resultFile) throws IOException {
+        LatencyRecorder total = new LatencyRecorder();
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Map.Entry<Operation, LatencyRecorder> entry : results.entrySet()) {
+            if (!mix.containsKey(entry.getKey())) {
+                continue;
+            }
+            System.out.printf("%-7s %s%n", entry.getKey().name().toLowerCase(), entry.getValue().summary(seconds));
+            operations.put(entry.getKey().name().toLowerCase(), entry.getValue().toMap(seconds));
+            total.merge(entry.getValue());
+        }
+        System.out.printf("%-7s %s%n", "total", total.summary(seconds));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", clients);
+        report.put("seconds", seconds);
+        report.put("mix", mix);
+        report.put("operations", operations);
+        report.put("total", total.toMap(seconds));
+        File file = new File(resultFile);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, report);
+        System.out.println("Resultados guardados en " + file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,120 @@
+package com.springboot.backend.brahian.usersapp.users_backend.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.springboot.backend.brahian.usersapp.users_backend.UsersBackendApplication;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserRepository;
+
+/**
+ * Prueba de carga con 1000 clientes concurrentes contra GET /api/users/page/{page} sobre los
+ * hilos de plataforma de Tomcat.
+ *
+ * Por defecto usa la base H2 de los tests; los argumentos se pasan a la aplicación, por
+ * ejemplo --spring.datasource.url=jdbc:mysql://... para medir contra MySQL. Con ambos modos
+ * el límite real de concurrencia hacia la base es el pool Hikari (maximum-pool-size).
+ *
+ * Parámetros (propiedades del sistema): load.clients (1000), load.seconds (30), load.users (400).
+ *
+ * El proyecto compila con Java 17, donde Spring Boot ignora spring.threads.virtual.enabled:
+ * los hilos virtuales no se pueden evaluar hasta pasar a Java 21, así que solo se mide el
+ * modo de plataforma.
+ */
+public class ThreadModeLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 1000);
+        int seconds = Integer.getInteger("load.seconds", 30);
+        int users = Integer.getInteger("load.users", 400);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UsersBackendApplication.class)
+                .properties("server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run(args)) {
+            seed(context.getBean(UserRepository.class), users);
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            int pages = Math.max(1, users / 4);
+
+            run(port, Math.min(clients, 50), 5, pages);
+            LatencyRecorder result = run(port, clients, seconds, pages);
+            System.out.printf("plataforma (%d clientes, %ds): %s%n", clients, seconds, result.summary(seconds));
+        }
+    }
+
+    private static void seed(UserRepository userRepository, int users) {
+        if (userRepository.count() >= users) {
+            return;
+        }
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setName("Load");
+            user.setLastname("Test");
+            user.setUsername("load" + i);
+            user.setEmail("load" + i + "@mail.com");
+            user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6Ql7zb3e2Ps0vIrS5iN5bAG");
+            batch.add(user);
+        }
+        userRepository.saveAll(batch);
+    }
+
+    private static LatencyRecorder run(int port, int clients, int seconds, int pages) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        LatencyRecorder[] recorders = new LatencyRecorder[clients];
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders[i] = recorder;
+            Thread thread = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        int page = ThreadLocalRandom.current().nextInt(pages);
+                        HttpRequest request = HttpRequest.newBuilder(
+                                URI.create("http://localhost:" + port + "/api/users/page/" + page))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                recorder.record(System.nanoTime() - start);
+                            } else {
+                                recorder.recordError();
+                            }
+                        } catch (Exception e) {
+                            recorder.recordError();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        LatencyRecorder total = new LatencyRecorder();
+        for (LatencyRecorder recorder : recorders) {
+            total.merge(recorder);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,80 @@
+package com.springboot.backend.brahian.usersapp.users_backend.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static com.springboot.backend.brahian.usersapp.users_backend.UserTestData.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.springboot.backend.brahian.usersapp.users_backend.UserTestData;
+import com.springboot.backend.brahian.usersapp.users_backend.services.UserService;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * El filtro va antes de Spring Security: cuenta el SQL del login y registra las peticiones
+ * que JwtValidationFilter rechaza.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(UserTestData.class)
+class SqlStatementCountFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserTestData testData;
+
+    @BeforeEach
+    void seed() {
+        testData.reset();
+        userService.createUser(user("sqllogin", "sqllogin@mail.com"));
+    }
+
+    @Test
+    void loginStatementsAreCounted() throws Exception {
+        // El registro se comparte con otras pruebas del mismo contexto que también hacen login
+        DistributionSummary previous = meterRegistry.find("http.server.requests.sql")
+                .tags("method", "POST", "uri", "/login").summary();
+        long count = previous == null ? 0 : previous.count();
+        double total = previous == null ? 0 : previous.totalAmount();
+
+        mockMvc.perform(post("/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"sqllogin\",\"password\":\"secret\"}"))
+                .andExpect(status().isOk());
+
+        DistributionSummary login = meterRegistry.get("http.server.requests.sql")
+                .tags("method", "POST", "uri", "/login").summary();
+        assertEquals(count + 1, login.count());
+        // Al menos la consulta de credenciales y roles de loadUserByUsername
+        assertTrue(login.totalAmount() - total >= 1, "sentencias: " + (login.totalAmount() - total));
+    }
+
+    @Test
+    void rejectedTokensAreRecorded() throws Exception {
+        mockMvc.perform(get("/api/users/1").header("Authorization", "Bearer invalido"))
+                .andExpect(status().isUnauthorized());
+
+        DistributionSummary rejected = meterRegistry.get("http.server.requests.sql")
+                .tags("method", "GET", "uri", "UNKNOWN").summary();
+        assertTrue(rejected.count() >= 1);
+    }
+}
@@ -0,0 +1,83 @@
+package com.springboot.backend.brahian.usersapp.users_backend.models;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.Role;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+
+/**
+ * Tamaño de una página de 1000 usuarios: la entidad tal como se devolvía antes (con el hash
+ * del password y los roles anidados) frente a UserView, en JSON plano y comprimido con gzip.
+ */
+class UserViewPayloadTests {
+
+    /** Restaura la serialización anterior del password para medir el "antes" */
+    abstract static class LegacyPasswordMixIn {
+        @JsonProperty(access = Access.READ_WRITE)
+        String password;
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void viewIsSmallerThanEntity() throws IOException {
+        List<User> users = users(1000);
+        List<UserView> views = users.stream().map(UserView::from).toList();
+
+        byte[] legacy = mapper.copy().addMixIn(User.class, LegacyPasswordMixIn.class).writeValueAsBytes(users);
+        byte[] entity = mapper.writeValueAsBytes(users);
+        byte[] view = mapper.writeValueAsBytes(views);
+
+        assertFalse(new String(view).contains("$2a$"));
+        assertTrue(view.length < legacy.length * 0.65, "UserView: " + view.length + " B, antes: " + legacy.length + " B");
+        assertTrue(entity.length < legacy.length, "entidad sin password: " + entity.length + " B, antes: " + legacy.length + " B");
+        assertTrue(gzip(view) < view.length / 3, "UserView con gzip: " + gzip(view) + " B, sin gzip: " + view.length + " B");
+    }
+
+    private static List<User> users(int count) {
+        Role userRole = role(1L, "ROLE_USER");
+        Role adminRole = role(2L, "ROLE_ADMIN");
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setName("Nombre" + i);
+            user.setLastname("Apellido" + i);
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@mail.com");
+            // Hash BCrypt de 60 caracteres, distinto por usuario como en la base de datos
+            user.setPassword(String.format("$2a$10$%053d", (long) i * 7919));
+            user.setVersion(0L);
+            user.setRoles(i % 10 == 0 ? List.of(userRole, adminRole) : List.of(userRole));
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static Role role(Long id, String name) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+
+    private static int gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.size();
+    }
+}
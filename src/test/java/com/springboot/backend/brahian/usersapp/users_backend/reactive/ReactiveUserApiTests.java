@@ -0,0 +1,106 @@
+package com.springboot.backend.brahian.usersapp.users_backend.reactive;
+
+import static com.springboot.backend.brahian.usersapp.users_backend.auth.TokenJwtConfig.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static com.springboot.backend.brahian.usersapp.users_backend.UserTestData.user;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.springboot.backend.brahian.usersapp.users_backend.UserTestData;
+import com.springboot.backend.brahian.usersapp.users_backend.auth.JwtTokenIssuer;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserView;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserRepository;
+
+@SpringBootTest(properties = "rx.server.enabled=true")
+@Import(UserTestData.class)
+class ReactiveUserApiTests {
+
+    @Autowired
+    private ReactiveApiServer server;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTestData testData;
+
+    @Autowired
+    private JwtTokenIssuer tokenIssuer;
+
+    private WebTestClient client;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + server.getPort()).build();
+        testData.reset();
+        user = testData.save(user("reactive", "reactive@mail.com"), "ROLE_USER");
+    }
+
+    @Test
+    void listStreamsUsersWithRoles() {
+        List<UserView> users = client.get().uri("/api/rx/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(UserView.class)
+                .getResponseBody()
+                .filter(u -> u.id().equals(user.getId()))
+                .collectList()
+                .block();
+
+        assertEquals(1, users.size());
+        assertEquals("reactive", users.get(0).username());
+        assertEquals(List.of("ROLE_USER"), users.get(0).roles());
+    }
+
+    @Test
+    void pageReturnsTotals() {
+        client.get().uri("/api/rx/users/page/0")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.number").isEqualTo(0)
+                .jsonPath("$.content[0].roles[0]").isEqualTo("ROLE_USER")
+                .jsonPath("$.totalElements").value(total -> assertEquals(userRepository.count(), ((Number) total).longValue()));
+    }
+
+    @Test
+    void userByIdRequiresValidToken() {
+        client.get().uri("/api/rx/users/{id}", user.getId())
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        client.get().uri("/api/rx/users/{id}", user.getId())
+                .header(HEADER_AUTHORIZATION, PREFIX_TOKEN + "no.es.valido")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody().jsonPath("$.message").isEqualTo("El token es invalido!");
+
+        client.get().uri("/api/rx/users/{id}", user.getId())
+                .header(HEADER_AUTHORIZATION, PREFIX_TOKEN + token("ROLE_USER"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.username").isEqualTo("reactive");
+
+        client.get().uri("/api/rx/users/{id}", -1)
+                .header(HEADER_AUTHORIZATION, PREFIX_TOKEN + token("ROLE_USER"))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private String token(String role) {
+        return tokenIssuer.issue("reactive", List.of(new SimpleGrantedAuthority(role)));
+    }
+}
@@ -0,0 +1,61 @@
+package com.springboot.backend.brahian.usersapp.users_backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.springboot.backend.brahian.usersapp.users_backend.entities.Role;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.RoleRepository;
+
+/**
+ * Un rol inexistente no recarga el catálogo en cada consulta.
+ */
+class RoleCatalogTests {
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+
+    private final RoleCatalog catalog = new RoleCatalog();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(catalog, "roleRepository", roleRepository);
+        ReflectionTestUtils.setField(catalog, "missReloadMillis", 60_000L);
+    }
+
+    @Test
+    void missesReloadAtMostOncePerInterval() {
+        Role user = new Role();
+        user.setId(1L);
+        user.setName("ROLE_USER");
+        when(roleRepository.findAll()).thenReturn(List.of(user));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(catalog.findByName("ROLE_ADMIN").isEmpty());
+        }
+        assertTrue(catalog.findByName("ROLE_USER").isPresent());
+        verify(roleRepository, times(1)).findAll();
+
+        // Pasado el intervalo, el siguiente fallo recarga una vez
+        ReflectionTestUtils.setField(catalog, "missReloadMillis", 0L);
+        catalog.findByName("ROLE_ADMIN");
+        verify(roleRepository, times(2)).findAll();
+    }
+
+    @Test
+    void emptyTableIsLoadedOnce() {
+        when(roleRepository.findAll()).thenReturn(List.of());
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(catalog.findByName("ROLE_ADMIN").isEmpty());
+        }
+        verify(roleRepository, times(1)).findAll();
+    }
+}
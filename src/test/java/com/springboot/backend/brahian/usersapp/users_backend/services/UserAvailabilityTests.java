@@ -0,0 +1,116 @@
+package com.springboot.backend.brahian.usersapp.users_backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static com.springboot.backend.brahian.usersapp.users_backend.UserTestData.user;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.springboot.backend.brahian.usersapp.users_backend.UserTestData;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserRequest;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Unicidad de username y email: rechazo de duplicados y respuestas del filtro de Bloom
+ * sin consultar la base de datos.
+ */
+@SpringBootTest
+@Import(UserTestData.class)
+class UserAvailabilityTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserTestData testData;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserAvailability availability;
+
+    @BeforeEach
+    void seed() {
+        testData.reset();
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i));
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, "falsos positivos: " + falsePositives);
+    }
+
+    @Test
+    void duplicatesAreRejectedBeforeHashing() {
+        User created = userService.createUser(user("unico", "unico@mail.com"));
+
+        DuplicateUserException username = assertThrows(DuplicateUserException.class,
+                () -> userService.createUser(user("unico", "otro@mail.com")));
+        assertEquals("username", username.getField());
+        DuplicateUserException email = assertThrows(DuplicateUserException.class,
+                () -> userService.createUser(user("otro", "unico@mail.com")));
+        assertEquals("email", email.getField());
+
+        // El usuario puede conservar sus propios valores al actualizarse
+        UserRequest request = new UserRequest();
+        request.setName("Unico");
+        request.setLastname("Usuario");
+        request.setUsername("unico");
+        request.setEmail("unico@mail.com");
+        assertTrue(userService.updateUser(request, created.getId()).isPresent());
+
+        assertFalse(userService.isUsernameAvailable("unico"));
+        assertFalse(userService.isEmailAvailable("unico@mail.com"));
+    }
+
+    @Test
+    void keyIgnoresCaseAndAccentsLikeTheCollation() {
+        assertEquals("jose", UserAvailability.key(" José "));
+        assertEquals("jose", UserAvailability.key("JOSE"));
+        assertEquals("jose", UserAvailability.key("jo\u0301se"));
+        assertEquals("munoz@mail.com", UserAvailability.key("Muñoz@Mail.com"));
+    }
+
+    @Test
+    void usersCreatedWithoutEventAreSeenAfterRebuild() {
+        // Como un alta en otra instancia: llega a la base de datos pero no a este filtro
+        testData.save(user("othernode", "othernode@mail.com"), "ROLE_USER");
+        assertTrue(userService.isUsernameAvailable("othernode"));
+
+        availability.rebuild();
+        assertFalse(userService.isUsernameAvailable("othernode"));
+        assertFalse(userService.isEmailAvailable("othernode@mail.com"));
+    }
+
+    @Test
+    void availableValuesDoNotHitTheDatabase() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertTrue(userService.isUsernameAvailable("libre123"));
+        assertTrue(userService.isEmailAvailable("libre123@mail.com"));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,84 @@
+package com.springboot.backend.brahian.usersapp.users_backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static com.springboot.backend.brahian.usersapp.users_backend.UserTestData.user;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.springboot.backend.brahian.usersapp.users_backend.UserTestData;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserImportResult;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserImportResult.Status;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserRepository;
+
+@SpringBootTest
+@Import(UserTestData.class)
+class UserImportServiceTests {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTestData testData;
+
+    @BeforeEach
+    void seed() {
+        testData.reset();
+    }
+
+    @Test
+    void importsValidRowsAndReportsInvalidOnes() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            users.add(user("import" + i, "import" + i + "@mail.com"));
+        }
+        users.add(1, user("imp", "no-es-un-email"));
+
+        List<UserImportResult> results = userImportService.importUsers(users.iterator());
+
+        assertEquals(4, results.size());
+        assertEquals(Status.INVALID, results.get(1).getStatus());
+        assertTrue(results.get(1).getErrors().containsKey("email"));
+        for (int i : new int[] { 0, 2, 3 }) {
+            assertEquals(Status.CREATED, results.get(i).getStatus());
+            assertNotNull(results.get(i).getId());
+        }
+        User saved = userRepository.findByUsername("import2").orElseThrow();
+        assertTrue(saved.getPassword().startsWith("$2"));
+        assertEquals(1, saved.getRoles().size());
+    }
+
+    @Test
+    void duplicatesAreInvalidWithoutRollingBackTheBlock() {
+        userImportService.importUsers(List.of(user("existing", "existing@mail.com")).iterator());
+        List<User> users = List.of(
+                user("dupimport", "dupimport@mail.com"),
+                user("DupImport", "dupimport2@mail.com"),
+                user("other", "existing@mail.com"),
+                user("fresh", "fresh@mail.com"),
+                user("dúpimport", "dupimport3@mail.com"));
+
+        List<UserImportResult> results = userImportService.importUsers(users.iterator());
+
+        assertEquals(Status.CREATED, results.get(0).getStatus());
+        assertEquals(Status.INVALID, results.get(1).getStatus());
+        assertEquals("El username DupImport ya esta en uso", results.get(1).getErrors().get("username"));
+        assertEquals(Status.INVALID, results.get(2).getStatus());
+        assertTrue(results.get(2).getErrors().containsKey("email"));
+        assertEquals(Status.CREATED, results.get(3).getStatus());
+        // La colación de MySQL tampoco distingue acentos
+        assertEquals(Status.INVALID, results.get(4).getStatus());
+    }
+}
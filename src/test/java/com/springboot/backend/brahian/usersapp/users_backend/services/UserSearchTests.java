@@ -0,0 +1,112 @@
+package com.springboot.backend.brahian.usersapp.users_backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static com.springboot.backend.brahian.usersapp.users_backend.UserTestData.user;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+
+import com.springboot.backend.brahian.usersapp.users_backend.UserTestData;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserRequest;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserSearchRequest;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserSuggestion;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserView;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserRepository;
+
+/**
+ * Búsqueda por prefijo con keyset y sincronización del índice de autocompletado
+ * con las altas, actualizaciones y borrados del servicio.
+ */
+@SpringBootTest
+@Import(UserTestData.class)
+class UserSearchTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTestData testData;
+
+    @Autowired
+    private UserPrefixIndex prefixIndex;
+
+    @BeforeEach
+    void seed() {
+        testData.reset();
+        for (int i = 0; i < 5; i++) {
+            User user = user("srch" + i, "srch" + i + "@busca.com");
+            user.setLastname(i % 2 == 0 ? "Garcia" : "Gomez");
+            userService.createUser(user);
+        }
+    }
+
+    @Test
+    void searchCombinesPrefixesWithKeyset() {
+        UserSearchRequest search = new UserSearchRequest();
+        search.setUsername("srch");
+        search.setLastname("Ga");
+
+        Slice<UserView> first = userService.searchUsers(search, null, 2);
+        assertEquals(List.of("srch0", "srch2"), first.map(UserView::username).getContent());
+        assertTrue(first.hasNext());
+        assertEquals(List.of("ROLE_USER"), first.getContent().get(0).roles());
+
+        Slice<UserView> second = userService.searchUsers(search, first.getContent().get(1).id(), 2);
+        assertEquals(List.of("srch4"), second.map(UserView::username).getContent());
+        assertFalse(second.hasNext());
+
+        // Los comodines se buscan de forma literal
+        search.setUsername("srch%");
+        assertTrue(userService.searchUsers(search, null, 2).isEmpty());
+    }
+
+    @Test
+    void prefixIndexFollowsServiceChanges() {
+        assertTrue(prefixIndex.isReady());
+        User created = userService.createUser(user("typeah", "typeah@busca.com"));
+        assertEquals(List.of("typeah"), usernames(userService.suggestUsers("TYPE", 10)));
+
+        UserRequest request = new UserRequest();
+        request.setName("Type");
+        request.setLastname("Lopez");
+        request.setUsername("renamed");
+        request.setEmail("typeah@busca.com");
+        userService.updateUser(request, created.getId());
+        assertEquals(List.of("renamed"), usernames(userService.suggestUsers("typeah@", 10)));
+        assertEquals(List.of("renamed"), usernames(userService.suggestUsers("renam", 10)));
+        assertTrue(userService.suggestUsers("typeah", 10).stream().noneMatch(s -> s.username().equals("typeah")));
+
+        userService.deleteById(created.getId());
+        assertTrue(userService.suggestUsers("renam", 10).isEmpty());
+    }
+
+    @Test
+    void rebuildPicksUpChangesFromOtherNodes() {
+        // Alta hecha por otra instancia: llega a la base de datos sin UserChangedEvent en este nodo
+        User other = userRepository.save(user("othernode", "othernode@busca.com"));
+        assertTrue(userService.suggestUsers("othern", 10).isEmpty());
+
+        prefixIndex.rebuild();
+        assertEquals(List.of("othernode"), usernames(userService.suggestUsers("othern", 10)));
+
+        userRepository.deleteById(other.getId());
+        prefixIndex.rebuild();
+        assertTrue(userService.suggestUsers("othern", 10).isEmpty());
+    }
+
+    private static List<String> usernames(List<UserSuggestion> suggestions) {
+        return suggestions.stream().map(UserSuggestion::username).toList();
+    }
+}
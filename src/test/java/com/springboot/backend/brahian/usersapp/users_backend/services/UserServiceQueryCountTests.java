@@ -0,0 +1,243 @@
+package com.springboot.backend.brahian.usersapp.users_backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static com.springboot.backend.brahian.usersapp.users_backend.UserTestData.user;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import com.springboot.backend.brahian.usersapp.users_backend.UserTestData;
+import com.springboot.backend.brahian.usersapp.users_backend.entities.User;
+import com.springboot.backend.brahian.usersapp.users_backend.models.UserView;
+import com.springboot.backend.brahian.usersapp.users_backend.repositories.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifica que los listados de usuarios cargan los roles sin N+1:
+ * el número de sentencias SQL por página no depende del tamaño de la página,
+ * y el login resuelve usuario y roles en una sola sentencia.
+ */
+@SpringBootTest
+@Import(UserTestData.class)
+@RecordApplicationEvents
+class UserServiceQueryCountTests {
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UseDetailsService useDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTestData testData;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seed() {
+        testData.reset();
+        for (int i = 0; i < 30; i++) {
+            User user = user("count" + i, "count" + i + "@mail.com");
+            if (i % 2 == 0) {
+                testData.save(user, "ROLE_USER");
+            } else {
+                testData.save(user, "ROLE_USER", "ROLE_ADMIN");
+            }
+        }
+    }
+
+    @Test
+    void pageLoadsRolesWithConstantStatementCount() {
+        long small = statementsForPage(4);
+        long large = statementsForPage(25);
+
+        // página de ids + count + usuarios con roles
+        assertTrue(small <= 3, "sentencias para 4 usuarios: " + small);
+        assertEquals(small, large);
+    }
+
+    @Test
+    void pagesAreOrderedById() {
+        List<Long> first = userService.getAllUsers(PageRequest.of(0, 10)).map(UserView::id).getContent();
+        List<Long> second = userService.getAllUsers(PageRequest.of(1, 10)).map(UserView::id).getContent();
+
+        assertEquals(first.stream().sorted().toList(), first);
+        assertTrue(first.get(9) < second.get(0));
+    }
+
+    @Test
+    void listLoadsRolesInOneStatement() {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        List<UserView> users = userService.getAllUsers();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        users.forEach(user -> assertFalse(user.roles().isEmpty()));
+    }
+
+    @Test
+    void scrollFetchesNextBlockWithoutCount() {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        Slice<UserView> first = userService.getUsersAfter(null, 10);
+        Long lastId = first.getContent().get(9).id();
+        Slice<UserView> second = userService.getUsersAfter(lastId, 10);
+
+        // ids + filas de usuarios con roles por bloque, sin COUNT
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertTrue(first.hasNext());
+        assertTrue(second.getContent().get(0).id() > lastId);
+    }
+
+    @Test
+    void exportLoadsRolesOncePerBatch() {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        List<User> exported = new ArrayList<>();
+        userService.streamAllUsers(user -> {
+            assertTrue(Hibernate.isInitialized(user.getRoles()));
+            exported.add(user);
+        });
+
+        // consulta del stream + una carga de roles por bloque de 100, si no estaban en caché
+        long statements = statistics.getPrepareStatementCount();
+        long batches = (exported.size() + 99) / 100;
+        assertTrue(statements <= 1 + batches, "sentencias: " + statements);
+        assertEquals(userRepository.count(), exported.size());
+    }
+
+    @Test
+    void userByIdIsServedFromSecondLevelCache() {
+        Long id = userRepository.findByUsername("count2").orElseThrow().getId();
+        userService.getUserById(id);
+
+        Statistics statistics = statistics();
+        statistics.clear();
+        userService.getUserById(id);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void bulkRoleChangeAndDeleteAreSetBased() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(testData.save(user("bulk" + i, "bulk" + i + "@mail.com"), "ROLE_USER").getId());
+        }
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        assertEquals(5, userService.updateAdminRole(ids, true));
+        assertEquals(0, userService.updateAdminRole(ids, true));
+        assertEquals(5, userService.updateAdminRole(ids, false));
+        assertEquals(5, userService.deleteAllById(ids));
+
+        // incremento de versión de los que cambian más el cambio de rol si alguno cambia;
+        // el borrado busca los ids existentes y limpia users_roles y users
+        assertTrue(statistics.getPrepareStatementCount() <= 8, "sentencias: " + statistics.getPrepareStatementCount());
+        assertTrue(userRepository.findByUsername("bulk0").isEmpty());
+    }
+
+    @Test
+    void bulkChangesOnlyTouchUsersThatChange() {
+        User admin = userRepository.findByUsername("count1").orElseThrow();
+        User plain = userRepository.findByUsername("count2").orElseThrow();
+
+        // Conceder a quien ya es admin no cambia su versión (ni su ETag)
+        assertEquals(1, userService.updateAdminRole(List.of(admin.getId(), plain.getId()), true));
+        assertEquals(admin.getVersion(), version(admin.getId()));
+        assertEquals(plain.getVersion() + 1, version(plain.getId()));
+
+        // Retirar a quien no es admin tampoco
+        User other = userRepository.findByUsername("count4").orElseThrow();
+        assertEquals(1, userService.updateAdminRole(List.of(plain.getId(), other.getId()), false));
+        assertEquals(other.getVersion(), version(other.getId()));
+        assertEquals(plain.getVersion() + 2, version(plain.getId()));
+
+        // Los ids que no existen no generan eventos de borrado
+        applicationEvents.clear();
+        assertEquals(1, userService.deleteAllById(List.of(plain.getId(), -1L)));
+        assertEquals(List.of(plain.getId()), applicationEvents.stream(UserChangedEvent.class)
+                .map(UserChangedEvent::id).toList());
+    }
+
+    @Test
+    void bulkRoleChangeEvictsOnlyAffectedUsers() {
+        Long untouched = userRepository.findByUsername("count2").orElseThrow().getId();
+        Long changed = userRepository.findByUsername("count4").orElseThrow().getId();
+        userService.getUserById(untouched);
+        userService.getUserById(changed);
+        org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+        assertTrue(cache.containsEntity(User.class, untouched));
+        assertTrue(cache.containsEntity(User.class, changed));
+
+        long version = userRepository.findById(changed).orElseThrow().getVersion();
+        assertEquals(1, userService.updateAdminRole(List.of(changed), true));
+
+        assertTrue(cache.containsEntity(User.class, untouched));
+        assertFalse(cache.containsEntity(User.class, changed));
+        assertFalse(cache.containsCollection(User.class.getName() + ".roles", changed));
+        UserView view = UserView.fromRows(userRepository.findRowsByIdIn(List.of(changed))).get(0);
+        assertEquals(version + 1, view.version());
+        assertTrue(view.roles().contains("ROLE_ADMIN"));
+    }
+
+    @Test
+    void loginLookupUsesOneStatement() {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        UserDetails details = useDetailsService.loadUserByUsername("count1");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, details.getAuthorities().size());
+    }
+
+    private long statementsForPage(int size) {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        Page<UserView> page = userService.getAllUsers(PageRequest.of(0, size));
+
+        assertEquals(size, page.getNumberOfElements());
+        page.forEach(user -> assertFalse(user.roles().isEmpty()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Long version(Long id) {
+        return UserView.fromRows(userRepository.findRowsByIdIn(List.of(id))).get(0).version();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}